@@ -19,4 +19,10 @@ module org.roux.rideshare {
     opens org.roux.rideshare.view to javafx.fxml;
     exports org.roux.rideshare.application;
     opens org.roux.rideshare.application to javafx.fxml;
+
+    uses org.roux.rideshare.utils.RoutingEngineProvider;
+    provides org.roux.rideshare.utils.RoutingEngineProvider with
+            org.roux.rideshare.utils.BatchRoutingProvider,
+            org.roux.rideshare.utils.DijkstraRoutingProvider,
+            org.roux.rideshare.utils.LandmarkRoutingProvider;
 }
\ No newline at end of file
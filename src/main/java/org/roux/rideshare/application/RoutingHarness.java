@@ -0,0 +1,346 @@
+package org.roux.rideshare.application;
+
+import org.roux.rideshare.model.MapLayout;
+import org.roux.rideshare.utils.DijkstraRoutingProvider;
+import org.roux.rideshare.utils.RoutingEngine;
+import org.roux.rideshare.utils.RoutingEngineProvider;
+import org.roux.rideshare.utils.RoutingEngines;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+
+/**
+ * The {@code RoutingHarness} class checks the routing engines against each other and against
+ * their performance budgets. It generates random graphs and query sets from a seed, runs every
+ * {@link RoutingEngineProvider} found by {@link RoutingEngines#providers()} on them. The
+ * point-to-point distances, the batched distances and a few one-to-all rows of every engine are
+ * compared with those of the reference {@link DijkstraRoutingProvider} engine. For every engine
+ * it records the preprocessing time, the memory retained by the preprocessed structures, the
+ * point-to-point query latency, the time per pair of a batch and the number of nodes settled
+ * per query.
+ *
+ * <p>Budgets are read from a properties file with keys of the form {@code engine.metric}, where
+ * the metric is one of {@code preprocessMillis}, {@code memoryMegabytes}, {@code p50Micros},
+ * {@code p99Micros}, {@code batchMicros} or {@code settledNodes}. The harness exits with status 1 if an engine
+ * returns a wrong distance and with status 3 if a metric goes over its budget, so it can gate
+ * a build. {@code --write-budgets} saves the measured metrics, with some headroom, as the
+ * budgets of later runs.
+ *
+ * <p>Usage: {@code RoutingHarness [--seed N] [--nodes N] [--queries N] [--graphs N]
+ * [--budgets file] [--write-budgets file]}
+ *
+ * @author Venkateshprasad, Prajwal, Gaurav
+ * @version 1.0
+ */
+public class RoutingHarness {
+    private static final long defaultSeed = 42;
+    private static final int defaultNodes = 2500;
+    private static final int defaultQueries = 2000;
+    private static final int defaultGraphs = 3;
+    private static final double laneProbability = 0.9;
+    private static final double shortcutRatio = 0.02;
+    private static final int maxLaneWeight = 10;
+    private static final int rowChecks = 5;
+    private static final int warmUpQueries = 200;
+    private static final double budgetHeadroom = 1.5;
+    private static final double tolerance = 1e-9;
+
+    /**
+     * Record to maintain the answers of an engine to a query set
+     *
+     * @param distances      point-to-point distance of every query
+     * @param batchDistances distance of every query, answered as one batch
+     * @param rows           one-to-all distances of the first sources
+     */
+    private record Answers(double[] distances, double[] batchDistances, double[][] rows) {
+    }
+
+    /**
+     * Metrics of an engine, gathered over all the graphs
+     */
+    private static final class Metrics {
+        private long preprocessNanos;
+        private long retainedBytes;
+        private long settledNodes;
+        private long batchNanos;
+        private long queryCount;
+        private long mismatches;
+        private final List<long[]> latencies = new ArrayList<>();
+
+        private Map<String, Double> values() {
+            long[] all = latencies.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+            Map<String, Double> values = new LinkedHashMap<>();
+            values.put("preprocessMillis", preprocessNanos / 1e6);
+            values.put("memoryMegabytes", retainedBytes / (1024.0 * 1024.0));
+            values.put("p50Micros", percentile(all, 0.50) / 1e3);
+            values.put("p99Micros", percentile(all, 0.99) / 1e3);
+            values.put("batchMicros", batchNanos / 1e3 / Math.max(1, queryCount));
+            if (settledNodes >= 0) {
+                values.put("settledNodes", (double) settledNodes / Math.max(1, queryCount));
+            }
+            return values;
+        }
+    }
+
+    /**
+     * Entry point of the harness
+     *
+     * @param args options of the harness
+     * @throws IOException if a budget file cannot be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        long seed = defaultSeed;
+        int nodes = defaultNodes;
+        int queries = defaultQueries;
+        int graphs = defaultGraphs;
+        Path budgetPath = null;
+        Path writeBudgetPath = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--seed" -> seed = Long.parseLong(args[++i]);
+                case "--nodes" -> nodes = Integer.parseInt(args[++i]);
+                case "--queries" -> queries = Integer.parseInt(args[++i]);
+                case "--graphs" -> graphs = Integer.parseInt(args[++i]);
+                case "--budgets" -> budgetPath = Path.of(args[++i]);
+                case "--write-budgets" -> writeBudgetPath = Path.of(args[++i]);
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        List<RoutingEngineProvider> providers = new ArrayList<>(RoutingEngines.providers());
+        providers.sort((first, second) -> Boolean.compare(!first.getName().equals(DijkstraRoutingProvider.NAME),
+                !second.getName().equals(DijkstraRoutingProvider.NAME)));
+        if (providers.isEmpty() || !providers.get(0).getName().equals(DijkstraRoutingProvider.NAME)) {
+            throw new IllegalStateException("Reference engine " + DijkstraRoutingProvider.NAME + " is not registered");
+        }
+        Map<String, Metrics> metricsByEngine = new LinkedHashMap<>();
+        providers.forEach(provider -> metricsByEngine.put(provider.getName(), new Metrics()));
+        for (int graph = 0; graph < graphs; graph++) {
+            Random random = new Random(seed + graph);
+            MapLayout mapLayout = randomGraph(random, nodes);
+            int[] sources = new int[queries];
+            int[] destinations = new int[queries];
+            for (int query = 0; query < queries; query++) {
+                sources[query] = 1 + random.nextInt(nodes);
+                destinations[query] = 1 + random.nextInt(nodes);
+            }
+            Answers expected = null;
+            for (RoutingEngineProvider provider : providers) {
+                Metrics metrics = metricsByEngine.get(provider.getName());
+                Answers answers = measure(provider, mapLayout, sources, destinations, metrics);
+                if (expected == null) {
+                    expected = answers;
+                    continue;
+                }
+                for (int query = 0; query < queries; query++) {
+                    check(provider, metrics, graph, sources[query], destinations[query],
+                            expected.distances()[query], answers.distances()[query]);
+                    check(provider, metrics, graph, sources[query], destinations[query],
+                            expected.distances()[query], answers.batchDistances()[query]);
+                }
+                for (int row = 0; row < answers.rows().length; row++) {
+                    int length = Math.max(expected.rows()[row].length, answers.rows()[row].length);
+                    for (int node = 0; node < length; node++) {
+                        check(provider, metrics, graph, sources[row], node,
+                                RoutingEngine.distanceOf(expected.rows()[row], node),
+                                RoutingEngine.distanceOf(answers.rows()[row], node));
+                    }
+                }
+            }
+        }
+
+        Properties budgets = new Properties();
+        if (budgetPath != null) {
+            try (Reader reader = Files.newBufferedReader(budgetPath)) {
+                budgets.load(reader);
+            }
+        }
+        Properties measured = new Properties();
+        boolean wrong = false;
+        boolean overBudget = false;
+        System.out.printf("%-10s %12s %10s %10s %10s %10s %10s %10s%n", "engine", "preprocess", "memory", "p50",
+                "p99", "batch", "settled", "mismatch");
+        for (Map.Entry<String, Metrics> entry : metricsByEngine.entrySet()) {
+            Metrics metrics = entry.getValue();
+            Map<String, Double> values = metrics.values();
+            System.out.printf("%-10s %10.1fms %8.2fMB %8.1fus %8.1fus %8.1fus %10s %10d%n", entry.getKey(),
+                    values.get("preprocessMillis"), values.get("memoryMegabytes"), values.get("p50Micros"),
+                    values.get("p99Micros"), values.get("batchMicros"), values.containsKey("settledNodes")
+                            ? String.format("%.0f", values.get("settledNodes")) : "-", metrics.mismatches);
+            wrong |= metrics.mismatches > 0;
+            for (Map.Entry<String, Double> value : values.entrySet()) {
+                String key = entry.getKey() + "." + value.getKey();
+                measured.setProperty(key, String.format("%.3f", value.getValue() * budgetHeadroom));
+                String budget = budgets.getProperty(key);
+                if (budget != null && value.getValue() > Double.parseDouble(budget)) {
+                    System.out.printf("OVER BUDGET %s: %.3f > %s%n", key, value.getValue(), budget);
+                    overBudget = true;
+                }
+            }
+        }
+        if (writeBudgetPath != null) {
+            try (Writer writer = Files.newBufferedWriter(writeBudgetPath)) {
+                measured.store(writer, "Routing budgets, measured with seed " + seed + ", " + nodes + " nodes");
+            }
+        }
+        if (wrong) {
+            System.exit(1);
+        }
+        if (overBudget) {
+            System.exit(3);
+        }
+    }
+
+    /**
+     * Preprocesses a map with an engine and runs the queries, adding the measurements to the
+     * metrics of the engine. The memory retained by the engine is estimated from the used heap
+     * around the preprocessing, after a garbage collection, and a few queries are run untimed
+     * first so the latencies are not those of the interpreter.
+     *
+     * @param provider     provider of the engine to measure
+     * @param mapLayout    map of the queries
+     * @param sources      source node of every query
+     * @param destinations destination node of every query
+     * @param metrics      metrics of the engine
+     * @return answers of the engine
+     */
+    private static Answers measure(RoutingEngineProvider provider, MapLayout mapLayout, int[] sources,
+                                   int[] destinations, Metrics metrics) {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long usedBefore = runtime.totalMemory() - runtime.freeMemory();
+        long start = System.nanoTime();
+        RoutingEngine engine = provider.create(mapLayout);
+        metrics.preprocessNanos = Math.max(metrics.preprocessNanos, System.nanoTime() - start);
+        System.gc();
+        long usedAfter = runtime.totalMemory() - runtime.freeMemory();
+        metrics.retainedBytes = Math.max(metrics.retainedBytes, Math.max(0, usedAfter - usedBefore));
+
+        int warmUp = Math.min(sources.length, warmUpQueries);
+        for (int query = 0; query < warmUp; query++) {
+            engine.distance(sources[query], destinations[query]);
+        }
+        engine.distances(Arrays.copyOf(sources, warmUp), Arrays.copyOf(destinations, warmUp));
+
+        long settledBefore = engine.getSettledNodeCount();
+        double[] distances = new double[sources.length];
+        long[] latencies = new long[sources.length];
+        for (int query = 0; query < sources.length; query++) {
+            long queryStart = System.nanoTime();
+            distances[query] = engine.distance(sources[query], destinations[query]);
+            latencies[query] = System.nanoTime() - queryStart;
+        }
+        long settledAfter = engine.getSettledNodeCount();
+        long batchStart = System.nanoTime();
+        double[] batchDistances = engine.distances(sources, destinations);
+        metrics.batchNanos += System.nanoTime() - batchStart;
+        double[][] rows = new double[Math.min(sources.length, rowChecks)][];
+        for (int row = 0; row < rows.length; row++) {
+            rows[row] = engine.distancesFrom(sources[row]);
+        }
+
+        metrics.latencies.add(latencies);
+        metrics.queryCount += sources.length;
+        metrics.settledNodes = settledBefore < 0 || metrics.settledNodes < 0
+                ? -1 : metrics.settledNodes + settledAfter - settledBefore;
+        return new Answers(distances, batchDistances, rows);
+    }
+
+    /**
+     * Compares a distance of an engine with that of the reference engine, counting and
+     * printing the first mismatches.
+     *
+     * @param provider provider of the engine under test
+     * @param metrics  metrics of the engine
+     * @param graph    index of the graph
+     * @param source   source node
+     * @param target   target node
+     * @param expected distance of the reference engine
+     * @param actual   distance of the engine under test
+     */
+    private static void check(RoutingEngineProvider provider, Metrics metrics, int graph, int source, int target,
+                              double expected, double actual) {
+        if (!sameDistance(expected, actual) && metrics.mismatches++ < 5) {
+            System.out.printf("MISMATCH %s graph %d: %d -> %d expected %s got %s%n", provider.getName(), graph,
+                    source, target, expected, actual);
+        }
+    }
+
+    /**
+     * Generates a random road map: a square grid whose lanes are kept with a fixed probability,
+     * plus a few long lanes between random nodes. Every lane has a random weight in each
+     * direction, so engines that assume symmetric distances are caught.
+     *
+     * @param random seeded random generator
+     * @param nodes  number of nodes, numbered from 1
+     * @return generated map
+     */
+    static MapLayout randomGraph(Random random, int nodes) {
+        MapLayout mapLayout = new MapLayout();
+        int side = (int) Math.ceil(Math.sqrt(nodes));
+        for (int node = 1; node <= nodes; node++) {
+            int column = (node - 1) % side;
+            if (column + 1 < side && node + 1 <= nodes && random.nextDouble() < laneProbability) {
+                addRoad(mapLayout, random, node, node + 1);
+            }
+            if (node + side <= nodes && random.nextDouble() < laneProbability) {
+                addRoad(mapLayout, random, node, node + side);
+            }
+        }
+        for (int shortcut = 0; shortcut < nodes * shortcutRatio; shortcut++) {
+            addRoad(mapLayout, random, 1 + random.nextInt(nodes), 1 + random.nextInt(nodes));
+        }
+        return mapLayout;
+    }
+
+    /**
+     * Adds a road between two nodes, as a lane each way with its own random weight.
+     *
+     * @param mapLayout map to add the road to
+     * @param random    seeded random generator
+     * @param first     first node
+     * @param second    second node
+     */
+    private static void addRoad(MapLayout mapLayout, Random random, int first, int second) {
+        mapLayout.addLane(first, second, 1 + random.nextInt(maxLaneWeight));
+        mapLayout.addLane(second, first, 1 + random.nextInt(maxLaneWeight));
+    }
+
+    /**
+     * Compares two distances, treating unreachable nodes as equal.
+     *
+     * @param expected distance of the reference engine
+     * @param actual   distance of the engine under test
+     * @return true if the distances match, else false
+     */
+    private static boolean sameDistance(double expected, double actual) {
+        if (Double.isInfinite(expected) || Double.isInfinite(actual)) {
+            return expected == actual;
+        }
+        return Math.abs(expected - actual) <= tolerance * Math.max(1, Math.abs(expected));
+    }
+
+    /**
+     * Reads a percentile of sorted values.
+     *
+     * @param sorted   values in ascending order
+     * @param fraction percentile as a fraction
+     * @return value at the percentile, 0 if there are no values
+     */
+    private static double percentile(long[] sorted, double fraction) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(fraction * sorted.length) - 1)];
+    }
+}
@@ -0,0 +1,145 @@
+package org.roux.rideshare.application;
+
+import org.roux.rideshare.model.CabPool;
+import org.roux.rideshare.model.Dispatcher;
+import org.roux.rideshare.model.MapLayout;
+import org.roux.rideshare.model.RegionPartition;
+import org.roux.rideshare.model.RideQuoteService;
+import org.roux.rideshare.model.RideRequest;
+import org.roux.rideshare.model.ShardedDispatcher;
+import org.roux.rideshare.utils.LandmarkIndex;
+import org.roux.rideshare.utils.LegDistanceCache;
+import org.roux.rideshare.utils.RequestIngestor;
+import org.roux.rideshare.utils.RouteCache;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * The {@code TraceReplay} class replays a trace of ride requests through a headless
+ * {@link Dispatcher}, without the user interface. Requests are streamed from a file or from
+ * the first connection on a local port by a {@link RequestIngestor}, and the sustained
+ * request rate and queue depth are reported every second. With more than one shard, the map
+ * is bisected into regions and each region is dispatched by its own shard of a
+ * {@link ShardedDispatcher}, with the given number of cabs per shard.
+ *
+ * <p>Usage: {@code TraceReplay <trace file | port> [--real-time] [--cabs N] [--queue N] [--shards N]}
+ *
+ * @author Venkateshprasad, Prajwal, Gaurav
+ * @version 1.0
+ */
+public class TraceReplay {
+    private static final int defaultCabs = 5;
+    private static final int defaultQueueCapacity = 1024;
+    private static final int legCacheCapacity = 1 << 16;
+    private static final int landmarkCount = 4;
+    private static final double mapWidth = 1000;
+    private static final double mapHeight = 700;
+
+    /**
+     * Entry point of the trace replay
+     *
+     * @param args trace file or port, then the options
+     * @throws IOException          if the trace cannot be opened
+     * @throws InterruptedException if the replay is interrupted
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length == 0) {
+            System.err.println("Usage: TraceReplay <trace file | port> [--real-time] [--cabs N] [--queue N] [--shards N]");
+            System.exit(2);
+        }
+        RequestIngestor.Pacing pacing = RequestIngestor.Pacing.AS_FAST_AS_POSSIBLE;
+        int cabs = defaultCabs;
+        int queueCapacity = defaultQueueCapacity;
+        int shardCount = 1;
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--real-time" -> pacing = RequestIngestor.Pacing.REAL_TIME;
+                case "--cabs" -> cabs = Integer.parseInt(args[++i]);
+                case "--queue" -> queueCapacity = Integer.parseInt(args[++i]);
+                case "--shards" -> shardCount = Integer.parseInt(args[++i]);
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        MapLayout mapLayout = new MapLayout();
+        mapLayout.generateGraphStructure();
+        mapLayout.layoutNodes(mapWidth, mapHeight);
+        BlockingQueue<RideRequest> queue = new ArrayBlockingQueue<>(queueCapacity);
+        try (RequestIngestor ingestor = args[0].matches("\\d+")
+                ? RequestIngestor.fromSocket(Integer.parseInt(args[0]), queue, pacing)
+                : RequestIngestor.fromFile(Path.of(args[0]), queue, pacing)) {
+            if (shardCount > 1) {
+                replaySharded(mapLayout, ingestor, queue, shardCount, cabs, queueCapacity);
+            } else {
+                replay(mapLayout, ingestor, queue, cabs);
+            }
+            System.out.printf("Replayed %d requests (%d malformed lines skipped) at %,.0f requests/s%n",
+                    ingestor.getRequestCount(), ingestor.getSkippedCount(), ingestor.getRequestsPerSecond());
+        }
+    }
+
+    /**
+     * Replays the requests through a single {@link Dispatcher}.
+     *
+     * @param mapLayout layout of the map
+     * @param ingestor  ingestor filling the queue, not started yet
+     * @param queue     queue of the requests
+     * @param cabs      number of cabs
+     * @throws InterruptedException if the replay is interrupted
+     */
+    private static void replay(MapLayout mapLayout, RequestIngestor ingestor, BlockingQueue<RideRequest> queue,
+                               int cabs) throws InterruptedException {
+        CabPool cabPool = new CabPool(cabs);
+        cabPool.spreadIdleCabs(mapLayout);
+        cabPool.setLandmarks(new LandmarkIndex(mapLayout, landmarkCount), Double.POSITIVE_INFINITY);
+        RouteCache routeCache = new RouteCache(mapLayout);
+        RideQuoteService quoteService = new RideQuoteService(cabPool, mapLayout,
+                new LegDistanceCache(routeCache, legCacheCapacity));
+        Dispatcher dispatcher = new Dispatcher(cabPool, mapLayout, quoteService, queue);
+        Thread dispatcherThread = new Thread(dispatcher, "dispatcher");
+        ingestor.start();
+        dispatcherThread.start();
+        while (dispatcherThread.isAlive()) {
+            dispatcherThread.join(1000);
+            System.out.printf("%,.0f requests/s, queue depth %d, booked %d, rejected %d, completed %d%n",
+                    ingestor.getRequestsPerSecond(), ingestor.getQueueDepth(), dispatcher.getBookedCount(),
+                    dispatcher.getRejectedCount(), dispatcher.getCompletedCount());
+        }
+    }
+
+    /**
+     * Replays the requests through a {@link ShardedDispatcher} over a bisection of the map.
+     *
+     * @param mapLayout     layout of the map
+     * @param ingestor      ingestor filling the queue, not started yet
+     * @param queue         queue of the requests
+     * @param shardCount    number of shards
+     * @param cabsPerShard  number of cabs of every shard
+     * @param queueCapacity capacity of the queue of every shard
+     * @throws InterruptedException if the replay is interrupted
+     */
+    private static void replaySharded(MapLayout mapLayout, RequestIngestor ingestor, BlockingQueue<RideRequest> queue,
+                                      int shardCount, int cabsPerShard, int queueCapacity) throws InterruptedException {
+        ShardedDispatcher dispatcher = new ShardedDispatcher(mapLayout,
+                RegionPartition.bisect(mapLayout, shardCount), cabsPerShard, queueCapacity);
+        Thread routerThread = new Thread(() -> {
+            try {
+                dispatcher.routeAll(queue);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "dispatch-router");
+        dispatcher.start();
+        ingestor.start();
+        routerThread.start();
+        while (routerThread.isAlive()) {
+            routerThread.join(1000);
+            System.out.printf("%,.0f requests/s, queue depth %d, booked %d, rejected %d, forwarded %d, completed %d%n",
+                    ingestor.getRequestsPerSecond(), ingestor.getQueueDepth(), dispatcher.getBookedCount(),
+                    dispatcher.getRejectedCount(), dispatcher.getForwardedCount(), dispatcher.getCompletedCount());
+        }
+    }
+}
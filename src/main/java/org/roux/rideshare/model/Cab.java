@@ -1,142 +1,82 @@
 package org.roux.rideshare.model;
 
-import javafx.animation.PathTransition;
-import javafx.scene.image.Image;
-import javafx.scene.image.ImageView;
-import javafx.scene.layout.Pane;
-import javafx.scene.paint.Color;
-import javafx.scene.shape.Circle;
-
-import java.util.ArrayList;
 import java.util.List;
 
 /**
- * The {@code Cab} class represent a cab in the ride-sharing application. It is represented
- * graphically using a {@link Circle} symbol. A cab has a capacity of two passengers at max.
+ * The {@code Cab} class represent a cab in the ride-sharing application. A cab has a
+ * capacity of two passengers at max. The state of the cab lives in a {@link FleetStore};
+ * a {@code Cab} is a view over its slot in the store.
  *
  * @author Venkateshprasad, Prajwal, Gaurav
  * @version 1.0
  */
 public class Cab {
-    private boolean isFull;
-    private Pane mapPane;
-    private ImageView carSymbol;
-    private List<Passenger> passengers;
-    private PathTransition route;
+    private final int id;
+    private final FleetStore fleet;
 
     /**
-     * Constructs a new {@code Cab} with specified boolean values and {@link Pane}.
+     * Constructs a new {@code Cab} viewing a slot of the specified {@link FleetStore}.
      *
-     * @param isFull  true if cab full, else false
-     * @param mapPane {@link Pane} where cab will be displayed
-     */
-    public Cab(boolean isFull, Pane mapPane) {
-        this.isFull = isFull;
-        this.mapPane = mapPane;
-        this.passengers = new ArrayList<>();
-        this.route = null;
-    }
-
-    /**
-     * Initializes the car symbol on the {@link Pane} of the graph.
+     * @param id    id of the cab in its pool
+     * @param fleet {@link FleetStore} holding the cab's state
      */
-    public void setupCar() {
-        Image carImage = new Image("file:src/main/resources/org/roux/rideshare/Designer.png");
-        carSymbol = new ImageView(carImage);//new Circle(5, Color.RED);
-        carSymbol.setFitHeight(35);
-        carSymbol.setFitWidth(35);
-        mapPane.getChildren().add(carSymbol);
-        carSymbol.setVisible(false);
+    public Cab(int id, FleetStore fleet) {
+        this.id = id;
+        this.fleet = fleet;
     }
 
     /**
-     * Adds a new passenger to the cab if cab not full and updates the status of
-     * cab, if cab is full after addition of new passenger.
+     * Getter method for id attribute
      *
-     * @param passenger {@link Passenger} of the cab
-     * @return true if passenger added, else false
+     * @return id of the cab in its pool
      */
-    public boolean addPassenger(Passenger passenger) {
-        if (isFull) {
-            return false;
-        }
-        passengers.add(passenger);
-        if (passengers.size() == 2) {
-            isFull = true;
-        }
-        return true;
+    public int getId() {
+        return id;
     }
 
     /**
-     * Getter method for isFull attribute
+     * Checks whether all the seats of the cab are taken
      *
      * @return true if cab full, else false
      */
     public boolean isFull() {
-        return isFull;
-    }
-
-    /**
-     * Setter method for mapPane attribute
-     *
-     * @param mapPane {@link Pane} of the graph
-     */
-    public void setMapPane(Pane mapPane) {
-        this.mapPane = mapPane;
+        return fleet.getSeatsUsed(id) == FleetStore.SEATS;
     }
 
     /**
-     * Getter method for carSymbol attribute
-     *
-     * @return {@link Circle} symbol of car
-     */
-    public ImageView getCarSymbol() {
-        return carSymbol;
-    }
-
-    /**
-     * Getter method for passengers attribute
+     * Getter method for passengers of the cab
      *
      * @return {@link List} of car's passengers
      */
     public List<Passenger> getPassengers() {
-        return passengers;
-    }
-
-    /**
-     * Getter method for route attribute
-     *
-     * @return {@link PathTransition} of car
-     */
-    public PathTransition getRoute() {
-        return route;
+        return fleet.getPassengers(id);
     }
 
     /**
-     * Setter method for route attribute
+     * Getter method for the number of passengers of the cab
      *
-     * @param route {@link PathTransition} of car
+     * @return number of passengers in the cab
      */
-    public void setRoute(PathTransition route) {
-        this.route = route;
+    public int getPassengerCount() {
+        return fleet.getSeatsUsed(id);
     }
 
     /**
-     * Setter method for passengers attribute
+     * Getter method for the current node of the cab
      *
-     * @param passengers {@link List} of car's passengers
+     * @return node where the cab last stopped, 0 if unknown
      */
-    public void setPassengers(List<Passenger> passengers) {
-        this.passengers = passengers;
+    public int getCurrentNode() {
+        return fleet.getCurrentNode(id);
     }
 
     /**
-     * Setter method for isFull attribute
+     * Setter method for the current node of the cab
      *
-     * @param isFull boolean value
+     * @param node node where the cab stopped
      */
-    public void setFull(boolean isFull) {
-        this.isFull = isFull;
+    public void setCurrentNode(int node) {
+        fleet.setCurrentNode(id, node);
     }
 
     /**
@@ -147,11 +87,9 @@ public class Cab {
     @Override
     public String toString() {
         return "Cab{" +
-                "isFull=" + isFull +
-                ", mapPane=" + mapPane +
-                ", carSymbol=" + carSymbol +
-                ", passengers=" + passengers +
-                ", route=" + route +
+                "id=" + id +
+                ", isFull=" + isFull() +
+                ", passengers=" + getPassengers() +
                 '}';
     }
 }
@@ -0,0 +1,98 @@
+package org.roux.rideshare.model;
+
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * The {@code CabMatchTask} class scores a range of candidate cabs using the fork-join
+ * framework and reduces the range to the candidate with the lowest score. Ranges smaller
+ * than the cutoff are scored sequentially on the calling thread.
+ *
+ * @author Venkateshprasad, Prajwal, Gaurav
+ * @version 1.0
+ */
+class CabMatchTask extends RecursiveTask<CabMatchTask.Match> {
+    private static final long serialVersionUID = 1L;
+    private final IntToDoubleFunction scorer;
+    private final int from;
+    private final int to;
+    private final int cutoff;
+
+    /**
+     * Record to maintain the best candidate of a range and its score
+     *
+     * @param index index of the candidate, -1 if no candidate is acceptable
+     * @param score score of the candidate, lower is better
+     */
+    record Match(int index, double score) {
+        static final Match NONE = new Match(-1, Double.POSITIVE_INFINITY);
+
+        /**
+         * Picks the better of two matches. Ties are resolved in favour of the lower
+         * index, so the result does not depend on how the range was split.
+         *
+         * @param other match to compare with
+         * @return the better match
+         */
+        Match best(Match other) {
+            if (other.score < score || (other.score == score && other.index >= 0
+                    && (index < 0 || other.index < index))) {
+                return other;
+            }
+            return this;
+        }
+    }
+
+    /**
+     * Constructs a new {@code CabMatchTask} for the candidates in the range [from, to).
+     *
+     * @param scorer scores a candidate by its index, {@link Double#POSITIVE_INFINITY} if unacceptable
+     * @param from   first candidate index (inclusive)
+     * @param to     last candidate index (exclusive)
+     * @param cutoff range size below which candidates are scored sequentially
+     */
+    CabMatchTask(IntToDoubleFunction scorer, int from, int to, int cutoff) {
+        this.scorer = scorer;
+        this.from = from;
+        this.to = to;
+        this.cutoff = Math.max(1, cutoff);
+    }
+
+    /**
+     * Scores the candidates in the range [from, to) one by one.
+     *
+     * @param scorer scores a candidate by its index
+     * @param from   first candidate index (inclusive)
+     * @param to     last candidate index (exclusive)
+     * @return best match of the range
+     */
+    static Match scoreSequentially(IntToDoubleFunction scorer, int from, int to) {
+        Match best = Match.NONE;
+        for (int i = from; i < to; i++) {
+            double score = scorer.applyAsDouble(i);
+            if (score < best.score()) {
+                best = new Match(i, score);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Splits the range in halves until it is below the cutoff and reduces the
+     * halves to the best match.
+     *
+     * @return best match of the range
+     */
+    @Override
+    protected Match compute() {
+        if (to - from <= cutoff) {
+            return scoreSequentially(scorer, from, to);
+        }
+        int middle = (from + to) >>> 1;
+        CabMatchTask left = new CabMatchTask(scorer, from, middle, cutoff);
+        CabMatchTask right = new CabMatchTask(scorer, middle, to, cutoff);
+        left.fork();
+        Match rightMatch = right.compute();
+        return left.join().best(rightMatch);
+    }
+}
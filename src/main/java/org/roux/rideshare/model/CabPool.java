@@ -1,21 +1,64 @@
 package org.roux.rideshare.model;
 
-import javafx.scene.shape.Circle;
+import org.roux.rideshare.utils.DijkstraAlgorithm;
+import org.roux.rideshare.utils.LandmarkIndex;
+import org.roux.rideshare.utils.TripJournal;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntToDoubleFunction;
 
 /**
  * The {@code CabPool} class represents a pool of cabs present in the ride-sharing
  * application. It provides methods to book and drop-off cabs present in the pool.
  * It considers the sharing ride preference and books the nearest cab if available
- * for different passengers.
+ * for different passengers. Solo rides get the idle cab closest by road, found by a
+ * search from the passenger's source over an {@link IdleCabIndex}. A sharing passenger
+ * joins a cab only if neither passenger of the cab goes over their detour limit and the
+ * cab reaches the new passenger within their waiting time.
  *
  * @author Venkateshprasad, Prajwal, Gaurav
  * @version 1.0
  */
 public class CabPool {
-    private final Queue<Cab> availableCabs;
-    private final List<Cab> bookedCabs;
+    private static final double SHARE_RADIUS = 250;
+    private static final int PARALLEL_MATCH_CUTOFF = 256;
+    private final FleetStore fleet;
+    private final List<Cab> cabs;
+    private final IndexedCabSet[] cabsByState;
+    private final CabState[] cabStates;
+    private final IdleCabIndex idleCabIndex;
+    private boolean parallelMatching = true;
+    private TripJournal journal;
+    private LandmarkIndex landmarks;
+    private double sharePickupLimit = Double.POSITIVE_INFINITY;
+    private long idleVersion;
+
+    /**
+     * States of a cab, each kept in its own {@link IndexedCabSet} of the pool
+     */
+    public enum CabState {
+        /**
+         * No passengers, the cab is available for a new booking
+         */
+        IDLE,
+        /**
+         * One passenger who does not share the ride
+         */
+        SOLO,
+        /**
+         * One passenger who shares the ride, a seat is free for another passenger
+         */
+        SHARED_OPEN,
+        /**
+         * All the seats are taken
+         */
+        FULL,
+        /**
+         * No passengers, the cab is driving to a new node and cannot be booked until it arrives
+         */
+        REPOSITIONING
+    }
 
     /**
      * Constructs a new {@code CabPool} with specified size.
@@ -23,11 +66,19 @@ public class CabPool {
      * @param size size of cab pool
      */
     public CabPool(int size) {
-        availableCabs = new LinkedList<>();
-        bookedCabs = new ArrayList<>();
+        fleet = new FleetStore(size);
+        cabs = new ArrayList<>(size);
+        cabsByState = new IndexedCabSet[CabState.values().length];
+        for (CabState state : CabState.values()) {
+            cabsByState[state.ordinal()] = new IndexedCabSet(size);
+        }
+        cabStates = new CabState[size];
+        idleCabIndex = new IdleCabIndex(size);
         for (int i = 0; i < size; i++) {
-            Cab cab = new Cab(false, null);
-            availableCabs.offer(cab);
+            cabs.add(new Cab(i, fleet));
+            cabStates[i] = CabState.IDLE;
+            cabsByState[CabState.IDLE.ordinal()].add(i);
+            idleCabIndex.add(i, fleet.getCurrentNode(i));
         }
     }
 
@@ -37,67 +88,354 @@ public class CabPool {
      * books a new cab
      *
      * @param passenger passenger to ride the cab
-     * @param nodeMap   map of all the nodes present in the graph
+     * @param mapLayout layout of the map with its node positions
      * @return booked cab
      */
-    public Cab bookCab(Passenger passenger,
-                       Map<Integer, Circle> nodeMap) {
-        if (passenger.isShareRide()) {
-            return findNearestCab(passenger, nodeMap);
+    public Cab bookCab(Passenger passenger, MapLayout mapLayout) {
+        return bookRide(new RideRequest(0, passenger.getSource(), passenger.getDestination(), passenger.isShareRide(),
+                passenger.getMaxDetourRatio(), passenger.getMaxWaitSeconds()), mapLayout);
+    }
+
+    /**
+     * Books an available cab for a ride request, like {@link #bookCab(Passenger, MapLayout)},
+     * storing the ride in the {@link RideRecordStore} of the fleet without a {@link Passenger}.
+     *
+     * @param request   ride request
+     * @param mapLayout layout of the map with its node positions
+     * @return booked cab, null if no cab is available
+     */
+    public Cab bookRide(RideRequest request, MapLayout mapLayout) {
+        Cab cab;
+        if (request.shareRide()) {
+            cab = findNearestCab(request, mapLayout);
         } else {
-            return newCab(passenger);
+            cab = newCab(request, mapLayout);
+        }
+        if (cab != null && journal != null) {
+            journal.recordBooking(cab, request.source(), request.destination(), request.shareRide());
+        }
+        return cab;
+    }
+
+    /**
+     * Books a specific cab for a ride request, as quoted by the {@link RideQuoteService}, so
+     * the cab is not searched for again. The cab has to be idle, or open for sharing if the
+     * passenger shares the ride.
+     *
+     * @param request ride request
+     * @param cabId   id of the quoted cab
+     * @return booked cab, null if the cab cannot take the request any more
+     */
+    public Cab bookRide(RideRequest request, int cabId) {
+        CabState state = cabStates[cabId];
+        if (state != CabState.IDLE && !(request.shareRide() && state == CabState.SHARED_OPEN)) {
+            return null;
+        }
+        addRide(cabId, request);
+        Cab cab = cabs.get(cabId);
+        if (journal != null) {
+            journal.recordBooking(cab, request.source(), request.destination(), request.shareRide());
+        }
+        return cab;
+    }
+
+    /**
+     * Restores a booking of a passenger in a specific cab, as replayed from a
+     * {@link TripJournal}. The passenger gets the default sharing limits. A journal written
+     * by a larger fleet may name cabs this pool does not have, which are not restored.
+     *
+     * @param cabId       id of the booked cab
+     * @param source      source node of the passenger
+     * @param destination destination node of the passenger
+     * @param shareRide   preference of sharing ride
+     * @return true if the booking was restored, false if the cab is unknown or full
+     */
+    public boolean restoreBooking(int cabId, int source, int destination, boolean shareRide) {
+        if (cabId < 0 || cabId >= fleet.size() || !fleet.addRide(cabId, source, destination, shareRide,
+                Passenger.DEFAULT_MAX_DETOUR_RATIO, Passenger.DEFAULT_MAX_WAIT_SECONDS)) {
+            return false;
+        }
+        updateState(cabId);
+        return true;
+    }
+
+    /**
+     * Restores the drop-off of a cab, as replayed from a {@link TripJournal}.
+     *
+     * @param cabId id of the cab
+     * @return true if the drop-off was restored, false if the cab is unknown
+     */
+    public boolean restoreDropOff(int cabId) {
+        if (cabId < 0 || cabId >= fleet.size()) {
+            return false;
+        }
+        dropOffCab(cabs.get(cabId));
+        return true;
+    }
+
+    /**
+     * Moves a cab to the set matching its seats and share flag in the {@link FleetStore}.
+     *
+     * @param cabId id of the cab
+     */
+    private void updateState(int cabId) {
+        CabState state;
+        switch (fleet.getSeatsUsed(cabId)) {
+            case 0 -> state = CabState.IDLE;
+            case 1 -> state = fleet.isShareRide(cabId) ? CabState.SHARED_OPEN : CabState.SOLO;
+            default -> state = CabState.FULL;
+        }
+        if (cabStates[cabId] != state) {
+            cabsByState[cabStates[cabId].ordinal()].remove(cabId);
+            cabsByState[state.ordinal()].add(cabId);
+            cabStates[cabId] = state;
+            if (state == CabState.IDLE) {
+                idleCabIndex.add(cabId, fleet.getCurrentNode(cabId));
+            } else {
+                idleCabIndex.remove(cabId);
+            }
+            idleVersion++;
         }
     }
 
     /**
      * Finds the nearest cab available for ride-sharing. It could be a pre-booked cab
-     * or a new cab based on the location of passenger.
+     * or a new cab based on the location of passenger. Only the cabs in the
+     * {@link CabState#SHARED_OPEN} set are scored, and the one closest to the passenger is
+     * booked. With parallel matching enabled, large candidate sets are scored on the
+     * common {@link ForkJoinPool}.
      *
-     * @param passenger passenger to ride the cab
-     * @param nodeMap   map of all the nodes present in the graph
+     * @param request   ride request of the passenger
+     * @param mapLayout layout of the map with its node positions
      * @return booked cab
      */
-    private Cab findNearestCab(Passenger passenger,
-                               Map<Integer, Circle> nodeMap) {
-        Cab bookedCab = null;
-        for (Cab cab : bookedCabs) {
-            if (!cab.isFull()) {
-                Passenger exisitingPassenger = cab.getPassengers().get(0);
-                if (exisitingPassenger.isShareRide()) {
-                    double cabPositionX = cab.getCarSymbol().getTranslateX() + cab.getCarSymbol().getLayoutX();
-                    double cabPositionY = cab.getCarSymbol().getTranslateY() + cab.getCarSymbol().getLayoutY();
-                    double passengerPositionX = nodeMap.get(passenger.getSource()).getCenterX();
-                    double passengerPositionY = nodeMap.get(passenger.getSource()).getCenterY();
-                    double distance = Math.sqrt(Math.pow(passengerPositionX - cabPositionX, 2)
-                            + Math.pow(passengerPositionY - cabPositionY, 2));
-                    if (distance <= 250) {
-                        bookedCab = cab;
-                        break;
-                    }
-                }
+    private Cab findNearestCab(RideRequest request, MapLayout mapLayout) {
+        int bookedCab = findShareCandidate(request, mapLayout);
+        if (bookedCab < 0) {
+            return newCab(request, mapLayout);
+        }
+        addRide(bookedCab, request);
+        return cabs.get(bookedCab);
+    }
+
+    /**
+     * Finds the cab a sharing passenger would join, without booking it. The closest
+     * {@link CabState#SHARED_OPEN} cab within the share radius is tried first; if it cannot
+     * take the passenger, the other candidates are tried in order of distance. Candidates
+     * whose landmark lower bound from the source of their passenger already exceeds the
+     * pickup limit are discarded for a few array reads each.
+     *
+     * @param request   ride request of the passenger
+     * @param mapLayout layout of the map with its node positions
+     * @return id of the closest cab that can take the passenger, -1 if none
+     */
+    public int findShareCandidate(RideRequest request, MapLayout mapLayout) {
+        IndexedCabSet candidates = cabsByState[CabState.SHARED_OPEN.ordinal()];
+        int size = candidates.size();
+        int source = request.source();
+        double passengerPositionX = mapLayout.getNodeX(source);
+        double passengerPositionY = mapLayout.getNodeY(source);
+        double pickupLimit = Math.min(sharePickupLimit,
+                request.maxWaitSeconds() * RideQuoteService.DISTANCE_PER_SECOND);
+        IntToDoubleFunction scorer = i -> {
+            double distance = fleet.distanceTo(candidates.get(i), passengerPositionX, passengerPositionY);
+            return distance <= SHARE_RADIUS ? distance : Double.POSITIVE_INFINITY;
+        };
+
+        CabMatchTask.Match match = matchBestCandidate(size, scorer);
+        if (match.index() < 0) {
+            return -1;
+        }
+        int closestCab = candidates.get(match.index());
+        if (fitsSharedRide(closestCab, request, pickupLimit, mapLayout)) {
+            return closestCab;
+        }
+        int[] survivors = new int[size];
+        double[] scores = new double[size];
+        int survivorCount = 0;
+        for (int i = 0; i < size; i++) {
+            double score = scorer.applyAsDouble(i);
+            int cab = candidates.get(i);
+            if (score < Double.POSITIVE_INFINITY && cab != closestCab && (landmarks == null
+                    || landmarks.lowerBound(fleet.getRides().getSource(fleet.getRideId(cab, 0)), source)
+                    <= pickupLimit)) {
+                survivors[survivorCount] = cab;
+                scores[survivorCount++] = score;
             }
         }
-        if (bookedCab == null) {
-            return newCab(passenger);
+        Integer[] order = new Integer[survivorCount];
+        for (int i = 0; i < survivorCount; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingDouble(i -> scores[i]));
+        for (int i : order) {
+            if (fitsSharedRide(survivors[i], request, pickupLimit, mapLayout)) {
+                return survivors[i];
+            }
         }
-        bookedCab.addPassenger(passenger);
-        return bookedCab;
+        return -1;
     }
 
     /**
-     * Books a new cab from the carpool.
+     * Checks whether a shared cab can take a new passenger. The pickup is measured along the
+     * booked route, from the source of the passenger on board to the new source, as the
+     * {@link RideQuoteService} quotes it: it has to be within the pickup limit and within the
+     * detour limit of the passenger on board, and one of the two drop-off orders has to keep
+     * both passengers within their detour limits. Every leg is a bounded search that gives up
+     * once the remaining budget is spent, so infeasible cabs are usually rejected after a
+     * short search rather than a full one.
      *
-     * @param passenger passenger to ride the cab
+     * @param cab         id of a {@link CabState#SHARED_OPEN} cab
+     * @param request     ride request of the new passenger
+     * @param pickupLimit largest road distance along the route of the cab to the new passenger
+     * @param mapLayout   layout of the map
+     * @return true if the cab can take the passenger, else false
+     */
+    private boolean fitsSharedRide(int cab, RideRequest request, double pickupLimit, MapLayout mapLayout) {
+        int source = request.source();
+        int destination = request.destination();
+        RideRecordStore rides = fleet.getRides();
+        int firstRide = fleet.getRideId(cab, 0);
+        int firstSource = rides.getSource(firstRide);
+        int firstDestination = rides.getDestination(firstRide);
+        if (landmarks != null && landmarks.lowerBound(firstSource, source) > pickupLimit) {
+            return false;
+        }
+        double firstBudget = rides.detourLimit(firstRide,
+                roadDistance(firstSource, firstDestination, Double.POSITIVE_INFINITY, mapLayout));
+        double toSourceLimit = Math.min(firstBudget, pickupLimit);
+        double toSource = roadDistance(firstSource, source, toSourceLimit, mapLayout);
+        if (toSource > toSourceLimit) {
+            return false;
+        }
+        double direct = roadDistance(source, destination, Double.POSITIVE_INFINITY, mapLayout);
+        double budget = direct * (1 + request.maxDetourRatio());
+
+        double toFirstDestination = roadDistance(source, firstDestination,
+                Math.min(firstBudget - toSource, budget), mapLayout);
+        if (toFirstDestination < Double.POSITIVE_INFINITY && roadDistance(firstDestination, destination,
+                budget - toFirstDestination, mapLayout) < Double.POSITIVE_INFINITY) {
+            return true;
+        }
+        double afterDropOff = firstBudget - toSource - direct;
+        return afterDropOff >= 0
+                && roadDistance(destination, firstDestination, afterDropOff, mapLayout) <= afterDropOff;
+    }
+
+    /**
+     * Computes the road distance between two nodes, giving up beyond a limit. The search
+     * is an A* search over the landmarks if set, else a Dijkstra search.
+     *
+     * @param source    source node
+     * @param target    target node
+     * @param limit     distance beyond which the search gives up
+     * @param mapLayout layout of the map
+     * @return road distance, {@link Double#POSITIVE_INFINITY} if target is not reachable within the limit
+     */
+    private double roadDistance(int source, int target, double limit, MapLayout mapLayout) {
+        if (landmarks != null) {
+            return landmarks.search(source, target, limit).distance();
+        }
+        double[] found = {Double.POSITIVE_INFINITY};
+        new DijkstraAlgorithm(mapLayout).searchFrom(source, (node, distance) -> {
+            if (distance > limit) {
+                return false;
+            }
+            if (node == target) {
+                found[0] = distance;
+                return false;
+            }
+            return true;
+        });
+        return found[0];
+    }
+
+    /**
+     * Scores the candidates and reduces them to the one with the lowest score. Candidate
+     * sets below the cutoff are scored on the calling thread, so matching at low load
+     * does not pay for task scheduling.
+     *
+     * @param size   number of candidates
+     * @param scorer scores a candidate by its index, {@link Double#POSITIVE_INFINITY} if unacceptable
+     * @return best match, with index -1 if no candidate is acceptable
+     */
+    private CabMatchTask.Match matchBestCandidate(int size, IntToDoubleFunction scorer) {
+        if (!parallelMatching || size < PARALLEL_MATCH_CUTOFF) {
+            return CabMatchTask.scoreSequentially(scorer, 0, size);
+        }
+        return ForkJoinPool.commonPool().invoke(new CabMatchTask(scorer, 0, size, PARALLEL_MATCH_CUTOFF / 4));
+    }
+
+    /**
+     * Books a new cab from the carpool, the idle cab closest to the passenger's source by
+     * road. Idle cabs not standing on a reachable node are booked only when no other cab is.
+     *
+     * @param request   ride request of the passenger
+     * @param mapLayout layout of the map
      * @return booked cab
      */
-    private Cab newCab(Passenger passenger) {
-        if (availableCabs.isEmpty()) {
+    private Cab newCab(RideRequest request, MapLayout mapLayout) {
+        int cab = findNearestIdleCab(request.source(), mapLayout);
+        if (cab < 0) {
             return null;
         }
-        Cab cab = availableCabs.poll();
-        cab.addPassenger(passenger);
-        bookedCabs.add(cab);
-        return cab;
+        addRide(cab, request);
+        return cabs.get(cab);
+    }
+
+    /**
+     * Finds the idle cab a solo ride from a node would book, without booking it: the idle
+     * cab closest by road, or any idle cab if none stands on a reachable node.
+     *
+     * @param node      node of the map, usually the source of a passenger
+     * @param mapLayout layout of the map
+     * @return id of the idle cab, -1 if no cab is idle
+     */
+    public int findNearestIdleCab(int node, MapLayout mapLayout) {
+        IndexedCabSet idleCabs = cabsByState[CabState.IDLE.ordinal()];
+        if (idleCabs.isEmpty()) {
+            return -1;
+        }
+        int[] nearest = findNearestIdleCabs(node, 1, mapLayout);
+        return nearest.length > 0 ? nearest[0] : idleCabs.get(idleCabs.size() - 1);
+    }
+
+    /**
+     * Adds the ride of a request to a cab and moves the cab to its new state.
+     *
+     * @param cab     id of the cab
+     * @param request ride request of the passenger
+     */
+    private void addRide(int cab, RideRequest request) {
+        fleet.addRide(cab, request.source(), request.destination(), request.shareRide(), request.maxDetourRatio(),
+                request.maxWaitSeconds());
+        updateState(cab);
+    }
+
+    /**
+     * Finds the idle cabs closest to a node by road. The search settles nodes in order of
+     * distance from the node and stops once it has found k cabs, so its cost depends on how
+     * far the cabs are rather than on the size of the fleet.
+     *
+     * @param node      node of the map, usually the source of a passenger
+     * @param k         maximum number of cabs to find
+     * @param mapLayout layout of the map
+     * @return ids of up to k idle cabs, closest first
+     */
+    public int[] findNearestIdleCabs(int node, int k, MapLayout mapLayout) {
+        int[] nearest = new int[Math.min(k, idleCabIndex.size())];
+        if (nearest.length == 0) {
+            return nearest;
+        }
+        int[] found = new int[1];
+        new DijkstraAlgorithm(mapLayout).searchFrom(node, (settledNode, distance) -> {
+            for (int cab = idleCabIndex.firstAt(settledNode); cab >= 0 && found[0] < nearest.length;
+                 cab = idleCabIndex.nextAt(cab)) {
+                nearest[found[0]++] = cab;
+            }
+            return found[0] < nearest.length;
+        });
+        return Arrays.copyOf(nearest, found[0]);
     }
 
     /**
@@ -106,10 +444,221 @@ public class CabPool {
      * @param cab booked cab
      */
     public void dropOffCab(Cab cab) {
-        availableCabs.offer(cab);
-        bookedCabs.remove(cab);
-        cab.setPassengers(new ArrayList<>());
-        cab.setFull(false);
-        cab.setRoute(null);
+        if (journal != null) {
+            journal.recordDropOff(cab);
+        }
+        fleet.clearPassengers(cab.getId());
+        updateState(cab.getId());
+    }
+
+    /**
+     * Moves an idle cab to a node of the map, as when it is placed at startup or sent
+     * towards a region where demand is expected.
+     *
+     * @param cabId     id of the cab
+     * @param node      node the cab is moved to
+     * @param mapLayout layout of the map with its node positions
+     * @return true if the cab was idle and moved, else false
+     */
+    public boolean relocateIdleCab(int cabId, int node, MapLayout mapLayout) {
+        if (cabStates[cabId] != CabState.IDLE) {
+            return false;
+        }
+        fleet.setCurrentNode(cabId, node);
+        fleet.setPosition(cabId, mapLayout.getNodeX(node), mapLayout.getNodeY(node));
+        idleCabIndex.add(cabId, node);
+        idleVersion++;
+        return true;
+    }
+
+    /**
+     * Sends an idle cab towards a new node. The cab leaves the idle cabs, so it is neither
+     * booked nor moved again from the node it left, until {@link #finishRepositioning} is
+     * called when it arrives.
+     *
+     * @param cabId id of the cab
+     * @return true if the cab was idle and is now repositioning, else false
+     */
+    public boolean startRepositioning(int cabId) {
+        if (cabStates[cabId] != CabState.IDLE) {
+            return false;
+        }
+        cabsByState[CabState.IDLE.ordinal()].remove(cabId);
+        cabsByState[CabState.REPOSITIONING.ordinal()].add(cabId);
+        cabStates[cabId] = CabState.REPOSITIONING;
+        idleCabIndex.remove(cabId);
+        idleVersion++;
+        return true;
+    }
+
+    /**
+     * Places a repositioning cab at the node it arrived at and makes it idle again.
+     *
+     * @param cabId     id of the cab
+     * @param node      node the cab arrived at
+     * @param mapLayout layout of the map with its node positions
+     * @return true if the cab was repositioning and is now idle, else false
+     */
+    public boolean finishRepositioning(int cabId, int node, MapLayout mapLayout) {
+        if (cabStates[cabId] != CabState.REPOSITIONING) {
+            return false;
+        }
+        cabsByState[CabState.REPOSITIONING.ordinal()].remove(cabId);
+        cabsByState[CabState.IDLE.ordinal()].add(cabId);
+        cabStates[cabId] = CabState.IDLE;
+        fleet.setCurrentNode(cabId, node);
+        fleet.setPosition(cabId, mapLayout.getNodeX(node), mapLayout.getNodeY(node));
+        idleCabIndex.add(cabId, node);
+        idleVersion++;
+        return true;
+    }
+
+    /**
+     * Spreads the idle cabs evenly over the nodes of the map, in the order of their ids.
+     *
+     * @param mapLayout layout of the map with its node positions
+     */
+    public void spreadIdleCabs(MapLayout mapLayout) {
+        spreadIdleCabs(mapLayout, mapLayout.getVerticesAdjList().keySet().stream()
+                .mapToInt(Integer::intValue).sorted().toArray());
+    }
+
+    /**
+     * Spreads the idle cabs evenly over some nodes of the map, in the order of their ids.
+     *
+     * @param mapLayout layout of the map with its node positions
+     * @param nodes     nodes to spread the cabs over
+     */
+    public void spreadIdleCabs(MapLayout mapLayout, int[] nodes) {
+        for (int cab = 0; cab < cabs.size(); cab++) {
+            relocateIdleCab(cab, nodes[(int) ((long) cab * nodes.length / cabs.size())], mapLayout);
+        }
+    }
+
+    /**
+     * Records the route assigned to a booked cab in the journal, if any.
+     *
+     * @param cab      booked cab
+     * @param distance total distance of the route
+     */
+    public void recordRoute(Cab cab, double distance) {
+        if (journal != null) {
+            journal.recordRoute(cab, distance);
+        }
+    }
+
+    /**
+     * Records the fare of a finished ride in the journal, if any.
+     *
+     * @param cab  cab of the ride
+     * @param fare fare of the ride
+     */
+    public void recordFare(Cab cab, double fare) {
+        if (journal != null) {
+            journal.recordFare(cab, fare);
+        }
+    }
+
+    /**
+     * Looks up a cab of the pool by its id.
+     *
+     * @param cabId id of the cab
+     * @return cab with the given id
+     */
+    public Cab getCab(int cabId) {
+        return cabs.get(cabId);
+    }
+
+    /**
+     * Getter method for fleet attribute
+     *
+     * @return {@link FleetStore} holding the state of the cabs
+     */
+    public FleetStore getFleet() {
+        return fleet;
+    }
+
+    /**
+     * Getter method for the state of a cab
+     *
+     * @param cabId id of the cab
+     * @return current {@link CabState} of the cab
+     */
+    public CabState getState(int cabId) {
+        return cabStates[cabId];
+    }
+
+    /**
+     * Getter method for the set of cabs in a state
+     *
+     * @param state state of the cabs
+     * @return {@link IndexedCabSet} of the cabs in that state, to be read only
+     */
+    public IndexedCabSet getCabs(CabState state) {
+        return cabsByState[state.ordinal()];
+    }
+
+    /**
+     * Collects the cabs with at least one passenger.
+     *
+     * @return new {@link List} of booked cabs
+     */
+    public List<Cab> getBookedCabs() {
+        List<Cab> bookedCabs = new ArrayList<>();
+        for (CabState state : EnumSet.range(CabState.SOLO, CabState.FULL)) {
+            IndexedCabSet stateCabs = cabsByState[state.ordinal()];
+            for (int i = 0; i < stateCabs.size(); i++) {
+                bookedCabs.add(cabs.get(stateCabs.get(i)));
+            }
+        }
+        return bookedCabs;
+    }
+
+    /**
+     * Setter method for journal attribute
+     *
+     * @param journal {@link TripJournal} receiving the dispatch events, null to disable journaling
+     */
+    public void setJournal(TripJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Sets the landmarks used to bound the road distances of shared rides.
+     *
+     * @param landmarks        {@link LandmarkIndex} of the map, null to search with Dijkstra
+     * @param sharePickupLimit largest road distance from a shared cab to a new passenger
+     */
+    public void setLandmarks(LandmarkIndex landmarks, double sharePickupLimit) {
+        this.landmarks = landmarks;
+        this.sharePickupLimit = sharePickupLimit;
+    }
+
+    /**
+     * Getter method for parallelMatching attribute
+     *
+     * @return true if large candidate sets are scored in parallel, else false
+     */
+    public boolean isParallelMatching() {
+        return parallelMatching;
+    }
+
+    /**
+     * Setter method for parallelMatching attribute
+     *
+     * @param parallelMatching true to score large candidate sets in parallel
+     */
+    public void setParallelMatching(boolean parallelMatching) {
+        this.parallelMatching = parallelMatching;
+    }
+
+    /**
+     * Getter method for the version of the idle cabs, which changes whenever a cab changes
+     * state or an idle cab is moved
+     *
+     * @return version of the idle cabs
+     */
+    public long getIdleVersion() {
+        return idleVersion;
     }
 }
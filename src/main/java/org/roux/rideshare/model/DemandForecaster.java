@@ -0,0 +1,116 @@
+package org.roux.rideshare.model;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The {@code DemandForecaster} class counts ride requests per region of a {@link RegionPartition}
+ * with exponential decay, so recent requests weigh more than old ones. Counters use forward
+ * decay: a request at time t adds exp((t - landmark) / decay) to its region, and a read scales
+ * the sum back by exp(-(now - landmark) / decay). Requests are recorded lock-free with a
+ * compare-and-set on the bits of the counter, and can come from any thread.
+ *
+ * <p>The landmark moves forward when the weights grow too large. Requests recorded while the
+ * counters are being rescaled may be lost, which a forecast can afford.
+ *
+ * @author Venkateshprasad, Prajwal, Gaurav
+ * @version 1.0
+ */
+public class DemandForecaster {
+    private static final double maxExponent = 30;
+    private final RegionPartition partition;
+    private final double decayMillis;
+    private final AtomicReference<Counters> counters;
+
+    /**
+     * Record to maintain the counters of all the regions relative to a landmark time
+     *
+     * @param landmark time the weights are relative to, in milliseconds
+     * @param values   forward-decayed counter of every region, as double bits
+     */
+    private record Counters(long landmark, AtomicLongArray values) {
+    }
+
+    /**
+     * Constructs a new {@code DemandForecaster} for the regions of a partition.
+     *
+     * @param partition   regions of the map
+     * @param decayMillis time in milliseconds after which a request weighs 1/e of a new one
+     * @param startMillis time the counting starts at, in milliseconds
+     */
+    public DemandForecaster(RegionPartition partition, double decayMillis, long startMillis) {
+        this.partition = partition;
+        this.decayMillis = decayMillis;
+        this.counters = new AtomicReference<>(new Counters(startMillis,
+                new AtomicLongArray(partition.getRegionCount())));
+    }
+
+    /**
+     * Records a ride request from a source node.
+     *
+     * @param sourceNode source node of the request
+     * @param timeMillis time of the request in milliseconds
+     */
+    public void recordRequest(int sourceNode, long timeMillis) {
+        int region = partition.regionOf(sourceNode);
+        if (region < 0) {
+            return;
+        }
+        Counters current = counters.get();
+        double exponent = (timeMillis - current.landmark()) / decayMillis;
+        if (exponent > maxExponent) {
+            current = rescale(current, timeMillis);
+            exponent = (timeMillis - current.landmark()) / decayMillis;
+        }
+        double weight = Math.exp(exponent);
+        AtomicLongArray values = current.values();
+        long bits;
+        do {
+            bits = values.get(region);
+        } while (!values.compareAndSet(region, bits,
+                Double.doubleToRawLongBits(Double.longBitsToDouble(bits) + weight)));
+    }
+
+    /**
+     * Moves the landmark to a new time, scaling the counters accordingly.
+     *
+     * @param current    counters relative to the old landmark
+     * @param timeMillis new landmark in milliseconds
+     * @return counters relative to the newest landmark
+     */
+    private Counters rescale(Counters current, long timeMillis) {
+        double factor = Math.exp(-(timeMillis - current.landmark()) / decayMillis);
+        AtomicLongArray values = new AtomicLongArray(current.values().length());
+        for (int region = 0; region < values.length(); region++) {
+            values.set(region, Double.doubleToRawLongBits(
+                    Double.longBitsToDouble(current.values().get(region)) * factor));
+        }
+        Counters rescaled = new Counters(timeMillis, values);
+        return counters.compareAndSet(current, rescaled) ? rescaled : counters.get();
+    }
+
+    /**
+     * Estimates the recent demand of every region.
+     *
+     * @param timeMillis time of the estimate in milliseconds
+     * @return decayed request count of every region
+     */
+    public double[] getDemand(long timeMillis) {
+        Counters current = counters.get();
+        double scale = Math.exp(-(timeMillis - current.landmark()) / decayMillis);
+        double[] demand = new double[current.values().length()];
+        for (int region = 0; region < demand.length; region++) {
+            demand[region] = Double.longBitsToDouble(current.values().get(region)) * scale;
+        }
+        return demand;
+    }
+
+    /**
+     * Getter method for partition attribute
+     *
+     * @return regions of the map
+     */
+    public RegionPartition getPartition() {
+        return partition;
+    }
+}
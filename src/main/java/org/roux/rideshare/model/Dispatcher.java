@@ -0,0 +1,268 @@
+package org.roux.rideshare.model;
+
+import org.roux.rideshare.utils.LatencyHistogram;
+
+import java.util.PriorityQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The {@code Dispatcher} class books the cabs of a {@link CabPool} for a stream of
+ * {@link RideRequest} records without any user interface. It keeps a virtual clock driven by
+ * the trace times of the requests: before a request is booked, every trip that ends by its
+ * time is finished and its cab dropped off at the last node of its route. Trip durations come
+ * from the {@link RideQuoteService} quote of the booking.
+ *
+ * <p>A request is matched to a cab once, then the route of that cab is quoted and the quoted
+ * cab is booked. The time spent matching and the time spent routing are recorded in a
+ * {@link LatencyHistogram} each, along with the number of busy cabs, for live monitoring.
+ *
+ * <p>The pool is only touched by the thread running the dispatcher; the counters and the
+ * histograms can be read from any thread.
+ *
+ * @author Venkateshprasad, Prajwal, Gaurav
+ * @version 1.0
+ */
+public class Dispatcher implements Runnable {
+    private final CabPool cabPool;
+    private final MapLayout mapLayout;
+    private final RideQuoteService quoteService;
+    private final BlockingQueue<RideRequest> queue;
+    private final PriorityQueue<TripEnd> tripEnds = new PriorityQueue<>();
+    private final long[] tripVersions;
+    private final AtomicLong bookedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong completedCount = new AtomicLong();
+    private final LatencyHistogram routingLatencies = new LatencyHistogram();
+    private final LatencyHistogram matchingLatencies = new LatencyHistogram();
+    private volatile int busyCabCount;
+    private DemandForecaster forecaster;
+    private long clockMillis;
+
+    /**
+     * Record to maintain the scheduled end of a trip. A trip end is stale when the cab got a
+     * new route after it was scheduled.
+     *
+     * @param timeMillis time the trip ends at on the virtual clock
+     * @param cabId      id of the cab
+     * @param lastNode   node where the route of the cab ends
+     * @param fare       fare of the route
+     * @param version    route version of the cab when the end was scheduled
+     */
+    private record TripEnd(long timeMillis, int cabId, int lastNode, double fare, long version)
+            implements Comparable<TripEnd> {
+        @Override
+        public int compareTo(TripEnd other) {
+            return Long.compare(timeMillis, other.timeMillis);
+        }
+    }
+
+    /**
+     * Constructs a new {@code Dispatcher} booking the cabs of a pool for the requests of a queue.
+     *
+     * @param cabPool      pool of cabs to book
+     * @param mapLayout    layout of the map with its node positions
+     * @param quoteService quotes the routes of the bookings
+     * @param queue        queue of requests for {@link #run()}, ended by {@link RideRequest#END_OF_STREAM},
+     *                     null if requests are only handed to {@link #dispatch(RideRequest)}
+     */
+    public Dispatcher(CabPool cabPool, MapLayout mapLayout, RideQuoteService quoteService,
+                      BlockingQueue<RideRequest> queue) {
+        this.cabPool = cabPool;
+        this.mapLayout = mapLayout;
+        this.quoteService = quoteService;
+        this.queue = queue;
+        this.tripVersions = new long[cabPool.getFleet().size()];
+    }
+
+    /**
+     * Dispatches the requests of the queue until the end of the stream, then finishes all
+     * the remaining trips.
+     */
+    @Override
+    public void run() {
+        try {
+            RideRequest request;
+            while ((request = queue.take()) != RideRequest.END_OF_STREAM) {
+                dispatch(request);
+            }
+            finishAll();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Books a cab for a request at its trace time. Requests from or to nodes that are not on
+     * the map, and requests no cab is available for, are rejected.
+     *
+     * @param request ride request
+     * @return booked cab, null if the request was rejected
+     */
+    public Cab dispatch(RideRequest request) {
+        Cab cab = book(request);
+        if (cab == null) {
+            rejectedCount.incrementAndGet();
+        }
+        return cab;
+    }
+
+    /**
+     * Books a cab for a request at its trace time, like {@link #dispatch(RideRequest)}, but
+     * leaves a failed booking to the caller, which may try another pool before rejecting it.
+     *
+     * @param request ride request
+     * @return booked cab, null if no cab of the pool can take the request
+     */
+    public Cab book(RideRequest request) {
+        advanceClock(request.timeMillis());
+        if (!mapLayout.getVerticesAdjList().containsKey(request.source())
+                || !mapLayout.getVerticesAdjList().containsKey(request.destination())) {
+            return null;
+        }
+        if (forecaster != null) {
+            forecaster.recordRequest(request.source(), clockMillis);
+        }
+        long matchingStart = System.nanoTime();
+        int cabId = quoteService.match(request);
+        long routingStart = System.nanoTime();
+        matchingLatencies.record(routingStart - matchingStart);
+        if (cabId < 0) {
+            return null;
+        }
+        RideQuoteService.Quote quote = quoteService.quote(request, cabId);
+        routingLatencies.record(System.nanoTime() - routingStart);
+        Cab cab = cabPool.bookRide(request, cabId);
+        if (cab == null) {
+            return null;
+        }
+        cabPool.recordRoute(cab, quote.distance());
+        long version = ++tripVersions[cab.getId()];
+        tripEnds.add(new TripEnd(clockMillis + (long) (quote.finishSeconds() * 1000), cab.getId(),
+                quote.lastNode(), RideQuoteService.fareOf(quote.distance()), version));
+        updateBusyCabCount();
+        bookedCount.incrementAndGet();
+        return cab;
+    }
+
+    /**
+     * Moves the virtual clock forward, finishing every trip that ends by the new time. The
+     * clock never goes back.
+     *
+     * @param timeMillis new time of the clock in milliseconds
+     */
+    public void advanceClock(long timeMillis) {
+        while (!tripEnds.isEmpty() && tripEnds.peek().timeMillis() <= timeMillis) {
+            TripEnd tripEnd = tripEnds.poll();
+            clockMillis = Math.max(clockMillis, tripEnd.timeMillis());
+            if (tripEnd.version() == tripVersions[tripEnd.cabId()]) {
+                finishTrip(tripEnd);
+            }
+        }
+        clockMillis = Math.max(clockMillis, timeMillis);
+    }
+
+    /**
+     * Finishes every trip in progress.
+     */
+    public void finishAll() {
+        while (!tripEnds.isEmpty()) {
+            advanceClock(tripEnds.peek().timeMillis());
+        }
+    }
+
+    /**
+     * Drops off the passengers of a cab at the end of its route.
+     *
+     * @param tripEnd end of the trip of the cab
+     */
+    private void finishTrip(TripEnd tripEnd) {
+        Cab cab = cabPool.getCab(tripEnd.cabId());
+        cabPool.recordFare(cab, tripEnd.fare());
+        cab.setCurrentNode(tripEnd.lastNode());
+        cabPool.getFleet().setPosition(tripEnd.cabId(), mapLayout.getNodeX(tripEnd.lastNode()),
+                mapLayout.getNodeY(tripEnd.lastNode()));
+        cabPool.dropOffCab(cab);
+        updateBusyCabCount();
+        completedCount.incrementAndGet();
+    }
+
+    /**
+     * Publishes the number of cabs of the pool that are not idle.
+     */
+    private void updateBusyCabCount() {
+        busyCabCount = cabPool.getFleet().size() - cabPool.getCabs(CabPool.CabState.IDLE).size();
+    }
+
+    /**
+     * Setter method for forecaster attribute
+     *
+     * @param forecaster {@link DemandForecaster} receiving the dispatched requests, null to disable
+     */
+    public void setForecaster(DemandForecaster forecaster) {
+        this.forecaster = forecaster;
+    }
+
+    /**
+     * Getter method for the virtual clock
+     *
+     * @return time of the virtual clock in milliseconds
+     */
+    public long getClockMillis() {
+        return clockMillis;
+    }
+
+    /**
+     * Getter method for the number of booked requests
+     *
+     * @return number of requests a cab was booked for
+     */
+    public long getBookedCount() {
+        return bookedCount.get();
+    }
+
+    /**
+     * Getter method for the number of rejected requests
+     *
+     * @return number of requests no cab was booked for
+     */
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    /**
+     * Getter method for the number of finished trips
+     *
+     * @return number of trips whose cab was dropped off
+     */
+    public long getCompletedCount() {
+        return completedCount.get();
+    }
+
+    /**
+     * Getter method for the number of busy cabs
+     *
+     * @return number of cabs with passengers on board, as of the last booking or drop off
+     */
+    public int getBusyCabCount() {
+        return busyCabCount;
+    }
+
+    /**
+     * Getter method for routingLatencies attribute
+     *
+     * @return time spent quoting the route of every matched request in its cab
+     */
+    public LatencyHistogram getRoutingLatencies() {
+        return routingLatencies;
+    }
+
+    /**
+     * Getter method for matchingLatencies attribute
+     *
+     * @return time spent matching every request on the map to a cab
+     */
+    public LatencyHistogram getMatchingLatencies() {
+        return matchingLatencies;
+    }
+}
@@ -0,0 +1,233 @@
+package org.roux.rideshare.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The {@code FleetStore} class holds the state of all the cabs of a {@link CabPool} in a
+ * struct-of-arrays layout. Each attribute of a cab lives in its own primitive array indexed
+ * by the cab id, so fleet scans read contiguous memory instead of chasing one object per cab.
+ * Passengers are referenced by int ids into a {@link RideRecordStore} whose ids are recycled
+ * on drop-off. {@link Cab} objects are thin views over a slot of the store.
+ *
+ * @author Venkateshprasad, Prajwal, Gaurav
+ * @version 1.0
+ */
+public class FleetStore {
+    /**
+     * Maximum number of passengers of a cab
+     */
+    public static final int SEATS = 2;
+    private static final int NO_PASSENGER = -1;
+
+    private final int size;
+    private final double[] positionsX;
+    private final double[] positionsY;
+    private final int[] currentNodes;
+    private final int[] seatsUsed;
+    private final boolean[] shareRides;
+    private final int[] passengerIds;
+    private final RideRecordStore rides;
+
+    /**
+     * Constructs a new {@code FleetStore} with specified number of cabs.
+     *
+     * @param size number of cabs
+     */
+    public FleetStore(int size) {
+        this.size = size;
+        this.positionsX = new double[size];
+        this.positionsY = new double[size];
+        this.currentNodes = new int[size];
+        this.seatsUsed = new int[size];
+        this.shareRides = new boolean[size];
+        this.passengerIds = new int[size * SEATS];
+        this.rides = new RideRecordStore(size * SEATS);
+        Arrays.fill(passengerIds, NO_PASSENGER);
+    }
+
+    /**
+     * Adds a passenger to a cab if a seat is free. The sharing preference of the first
+     * passenger becomes the share flag of the cab.
+     *
+     * @param cab       id of the cab
+     * @param passenger passenger to add
+     * @return true if passenger added, else false
+     */
+    public boolean addPassenger(int cab, Passenger passenger) {
+        return addRide(cab, passenger.getSource(), passenger.getDestination(), passenger.isShareRide(),
+                passenger.getMaxDetourRatio(), passenger.getMaxWaitSeconds());
+    }
+
+    /**
+     * Adds a ride to a cab if a seat is free, writing it into the {@link RideRecordStore}
+     * without allocating a {@link Passenger}. The sharing preference of the first ride
+     * becomes the share flag of the cab.
+     *
+     * @param cab            id of the cab
+     * @param source         source node of the passenger
+     * @param destination    destination node of the passenger
+     * @param shareRide      preference of sharing ride
+     * @param maxDetourRatio extra distance of a shared ride the passenger accepts, as a fraction of the direct route
+     * @param maxWaitSeconds time the passenger waits for a shared cab, in seconds
+     * @return true if the ride was added, else false
+     */
+    public boolean addRide(int cab, int source, int destination, boolean shareRide, double maxDetourRatio,
+                           double maxWaitSeconds) {
+        int seat = seatsUsed[cab];
+        if (seat == SEATS) {
+            return false;
+        }
+        passengerIds[cab * SEATS + seat] = rides.allocate(source, destination, shareRide, maxDetourRatio,
+                maxWaitSeconds);
+        if (seat == 0) {
+            shareRides[cab] = shareRide;
+        }
+        seatsUsed[cab] = seat + 1;
+        return true;
+    }
+
+    /**
+     * Removes all the passengers of a cab and recycles their ids.
+     *
+     * @param cab id of the cab
+     */
+    public void clearPassengers(int cab) {
+        for (int seat = 0; seat < seatsUsed[cab]; seat++) {
+            rides.release(passengerIds[cab * SEATS + seat]);
+            passengerIds[cab * SEATS + seat] = NO_PASSENGER;
+        }
+        seatsUsed[cab] = 0;
+        shareRides[cab] = false;
+    }
+
+    /**
+     * Calculates the straight-line distance between a cab and a point of the map.
+     *
+     * @param cab id of the cab
+     * @param x   x coordinate of the point
+     * @param y   y coordinate of the point
+     * @return distance between the cab and the point
+     */
+    public double distanceTo(int cab, double x, double y) {
+        double dx = positionsX[cab] - x;
+        double dy = positionsY[cab] - y;
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    /**
+     * Returns the passengers of a cab, built from their rides for the user interface.
+     *
+     * @param cab id of the cab
+     * @return new {@link List} of the cab's passengers in boarding order
+     */
+    public List<Passenger> getPassengers(int cab) {
+        List<Passenger> passengers = new ArrayList<>(seatsUsed[cab]);
+        for (int seat = 0; seat < seatsUsed[cab]; seat++) {
+            passengers.add(rides.toPassenger(passengerIds[cab * SEATS + seat]));
+        }
+        return passengers;
+    }
+
+    /**
+     * Getter method for the ride in a seat of a cab
+     *
+     * @param cab  id of the cab
+     * @param seat seat of the cab, below the number of used seats
+     * @return id of the ride in the {@link RideRecordStore}
+     */
+    public int getRideId(int cab, int seat) {
+        return passengerIds[cab * SEATS + seat];
+    }
+
+    /**
+     * Getter method for rides attribute
+     *
+     * @return {@link RideRecordStore} holding the rides of the passengers on board
+     */
+    public RideRecordStore getRides() {
+        return rides;
+    }
+
+    /**
+     * Updates the position of a cab on the map.
+     *
+     * @param cab id of the cab
+     * @param x   x coordinate of the cab
+     * @param y   y coordinate of the cab
+     */
+    public void setPosition(int cab, double x, double y) {
+        positionsX[cab] = x;
+        positionsY[cab] = y;
+    }
+
+    /**
+     * Getter method for the x coordinate of a cab
+     *
+     * @param cab id of the cab
+     * @return x coordinate of the cab
+     */
+    public double getPositionX(int cab) {
+        return positionsX[cab];
+    }
+
+    /**
+     * Getter method for the y coordinate of a cab
+     *
+     * @param cab id of the cab
+     * @return y coordinate of the cab
+     */
+    public double getPositionY(int cab) {
+        return positionsY[cab];
+    }
+
+    /**
+     * Getter method for the current node of a cab
+     *
+     * @param cab id of the cab
+     * @return node where the cab last stopped, 0 if unknown
+     */
+    public int getCurrentNode(int cab) {
+        return currentNodes[cab];
+    }
+
+    /**
+     * Setter method for the current node of a cab
+     *
+     * @param cab  id of the cab
+     * @param node node where the cab stopped
+     */
+    public void setCurrentNode(int cab, int node) {
+        currentNodes[cab] = node;
+    }
+
+    /**
+     * Getter method for the number of used seats of a cab
+     *
+     * @param cab id of the cab
+     * @return number of passengers in the cab
+     */
+    public int getSeatsUsed(int cab) {
+        return seatsUsed[cab];
+    }
+
+    /**
+     * Getter method for the share flag of a cab
+     *
+     * @param cab id of the cab
+     * @return true if the first passenger of the cab shares the ride, else false
+     */
+    public boolean isShareRide(int cab) {
+        return shareRides[cab];
+    }
+
+    /**
+     * Getter method for size attribute
+     *
+     * @return number of cabs in the store
+     */
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,111 @@
+package org.roux.rideshare.model;
+
+import java.util.Arrays;
+
+/**
+ * The {@code IdleCabIndex} class indexes the idle cabs by the node of the map they stand on.
+ * The cabs at a node form an intrusive doubly linked list threaded through arrays indexed by
+ * cab id, so cabs are added, removed and moved between nodes in constant time, and a search
+ * settling a node finds the cabs there without looking at the rest of the fleet.
+ *
+ * @author Venkateshprasad, Prajwal, Gaurav
+ * @version 1.0
+ */
+public class IdleCabIndex {
+    private static final int NONE = -1;
+    private int[] heads;
+    private final int[] next;
+    private final int[] previous;
+    private final int[] nodeOf;
+    private int size;
+
+    /**
+     * Constructs a new empty {@code IdleCabIndex} for cab ids below the specified capacity.
+     *
+     * @param capacity number of cabs in the fleet
+     */
+    public IdleCabIndex(int capacity) {
+        this.heads = new int[0];
+        this.next = new int[capacity];
+        this.previous = new int[capacity];
+        this.nodeOf = new int[capacity];
+        Arrays.fill(nodeOf, NONE);
+    }
+
+    /**
+     * Adds a cab at a node, moving it there if it was indexed at another node.
+     *
+     * @param cab  id of the cab
+     * @param node node the cab stands on
+     */
+    public void add(int cab, int node) {
+        remove(cab);
+        if (node >= heads.length) {
+            int length = heads.length;
+            heads = Arrays.copyOf(heads, Math.max(node + 1, length * 2));
+            Arrays.fill(heads, length, heads.length, NONE);
+        }
+        int head = heads[node];
+        next[cab] = head;
+        previous[cab] = NONE;
+        if (head != NONE) {
+            previous[head] = cab;
+        }
+        heads[node] = cab;
+        nodeOf[cab] = node;
+        size++;
+    }
+
+    /**
+     * Removes a cab from the index.
+     *
+     * @param cab id of the cab
+     * @return true if the cab was removed, false if it was not indexed
+     */
+    public boolean remove(int cab) {
+        int node = nodeOf[cab];
+        if (node == NONE) {
+            return false;
+        }
+        if (previous[cab] != NONE) {
+            next[previous[cab]] = next[cab];
+        } else {
+            heads[node] = next[cab];
+        }
+        if (next[cab] != NONE) {
+            previous[next[cab]] = previous[cab];
+        }
+        nodeOf[cab] = NONE;
+        size--;
+        return true;
+    }
+
+    /**
+     * Returns the first cab indexed at a node.
+     *
+     * @param node node of the map
+     * @return id of the cab, -1 if no cab stands on the node
+     */
+    public int firstAt(int node) {
+        return node >= 0 && node < heads.length ? heads[node] : NONE;
+    }
+
+    /**
+     * Returns the cab indexed after another one at the same node.
+     *
+     * @param cab id of an indexed cab
+     * @return id of the next cab at the node, -1 if there is none
+     */
+    public int nextAt(int cab) {
+        return next[cab];
+    }
+
+    /**
+     * Getter method for size attribute
+     *
+     * @return number of indexed cabs
+     */
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,338 @@
+package org.roux.rideshare.model;
+
+import org.roux.rideshare.utils.RouteCache;
+import org.roux.rideshare.utils.RoutingEngine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The {@code IdleCabRebalancer} class repositions the idle cabs of a {@link CabPool} towards
+ * the regions where a {@link DemandForecaster} expects requests. Every region gets a share of
+ * the idle cabs proportional to its forecast demand; the cabs a region has in excess are sent
+ * to the regions lacking cabs by solving a transport problem between them, as a min-cost flow
+ * with road distances between region centers as costs.
+ *
+ * <p>The flow is solved by successive shortest paths. The solver checks its time budget
+ * between paths and applies the flow found so far when it runs out, so a run cut short still
+ * returns useful moves. The moves are not applied to the pool: the caller takes every moved
+ * cab out of the idle cabs with {@link CabPool#startRepositioning} and places it with
+ * {@link CabPool#finishRepositioning} once it reaches its new node. Cabs still on their way
+ * are not idle, so they are neither booked nor planned again.
+ *
+ * @author Venkateshprasad, Prajwal, Gaurav
+ * @version 1.0
+ */
+public class IdleCabRebalancer {
+    private static final double minDemand = 1;
+    private final CabPool cabPool;
+    private final MapLayout mapLayout;
+    private final DemandForecaster forecaster;
+    private final RouteCache routeCache;
+
+    /**
+     * Record to maintain a move of an idle cab from one node to another
+     *
+     * @param cabId    id of the cab to move
+     * @param fromNode node the cab leaves
+     * @param toNode   node the cab is sent to
+     */
+    public record Move(int cabId, int fromNode, int toNode) {
+    }
+
+    /**
+     * Constructs a new {@code IdleCabRebalancer} for the idle cabs of a pool.
+     *
+     * @param cabPool    pool of cabs to rebalance
+     * @param mapLayout  layout of the map with its node positions
+     * @param forecaster forecaster of the demand per region
+     * @param routeCache cache of the road distances between nodes
+     */
+    public IdleCabRebalancer(CabPool cabPool, MapLayout mapLayout, DemandForecaster forecaster,
+                             RouteCache routeCache) {
+        this.cabPool = cabPool;
+        this.mapLayout = mapLayout;
+        this.forecaster = forecaster;
+        this.routeCache = routeCache;
+    }
+
+    /**
+     * Plans moves of idle cabs from the regions with more cabs than their forecast demand
+     * calls for to the regions with fewer, within a time budget. Cabs whose node is not in
+     * any region are left in place.
+     *
+     * @param timeMillis  time of the forecast in milliseconds
+     * @param budgetNanos time the solver may take in nanoseconds
+     * @return moves of the idle cabs, to be applied by the caller
+     */
+    public List<Move> rebalance(long timeMillis, long budgetNanos) {
+        long deadline = System.nanoTime() + budgetNanos;
+        RegionPartition partition = forecaster.getPartition();
+        int regionCount = partition.getRegionCount();
+        double[] demand = forecaster.getDemand(timeMillis);
+        double totalDemand = Arrays.stream(demand).sum();
+        if (totalDemand < minDemand) {
+            return List.of();
+        }
+
+        FleetStore fleet = cabPool.getFleet();
+        IndexedCabSet idleCabs = cabPool.getCabs(CabPool.CabState.IDLE);
+        int[][] idleByRegion = new int[regionCount][];
+        int[] idleCounts = new int[regionCount];
+        for (int i = 0; i < idleCabs.size(); i++) {
+            int region = partition.regionOf(fleet.getCurrentNode(idleCabs.get(i)));
+            if (region >= 0) {
+                idleCounts[region]++;
+            }
+        }
+        int idleTotal = 0;
+        for (int region = 0; region < regionCount; region++) {
+            idleByRegion[region] = new int[idleCounts[region]];
+            idleTotal += idleCounts[region];
+            idleCounts[region] = 0;
+        }
+        for (int i = 0; i < idleCabs.size(); i++) {
+            int cab = idleCabs.get(i);
+            int region = partition.regionOf(fleet.getCurrentNode(cab));
+            if (region >= 0) {
+                idleByRegion[region][idleCounts[region]++] = cab;
+            }
+        }
+
+        int[] targets = apportion(demand, totalDemand, idleTotal);
+        List<Integer> supplies = new ArrayList<>();
+        List<Integer> deficits = new ArrayList<>();
+        for (int region = 0; region < regionCount; region++) {
+            if (idleCounts[region] > targets[region]) {
+                supplies.add(region);
+            } else if (idleCounts[region] < targets[region]) {
+                deficits.add(region);
+            }
+        }
+        if (supplies.isEmpty() || deficits.isEmpty()) {
+            return List.of();
+        }
+
+        TransportProblem problem = new TransportProblem(supplies.size(), deficits.size());
+        for (int s = 0; s < supplies.size(); s++) {
+            int region = supplies.get(s);
+            problem.setSupply(s, idleCounts[region] - targets[region]);
+            double[] distances = routeCache.distancesFrom(partition.getCenterNode(region));
+            for (int d = 0; d < deficits.size(); d++) {
+                problem.setCost(s, d, RoutingEngine.distanceOf(distances, partition.getCenterNode(deficits.get(d))));
+            }
+            if (System.nanoTime() > deadline) {
+                return List.of();
+            }
+        }
+        for (int d = 0; d < deficits.size(); d++) {
+            int region = deficits.get(d);
+            problem.setDemand(d, targets[region] - idleCounts[region]);
+        }
+
+        // Each augmenting path leaves a feasible partial transport, so the flow found so far
+        // is applied when the budget runs out.
+        boolean augmented = true;
+        while (augmented && System.nanoTime() < deadline) {
+            augmented = problem.augment();
+        }
+        List<Move> moves = new ArrayList<>();
+        for (int s = 0; s < supplies.size(); s++) {
+            int[] regionCabs = idleByRegion[supplies.get(s)];
+            int sent = 0;
+            for (int d = 0; d < deficits.size(); d++) {
+                int toNode = partition.getCenterNode(deficits.get(d));
+                for (int i = 0; i < problem.getFlow(s, d); i++) {
+                    int cab = regionCabs[sent++];
+                    moves.add(new Move(cab, fleet.getCurrentNode(cab), toNode));
+                }
+            }
+        }
+        return moves;
+    }
+
+    /**
+     * Splits the idle cabs between the regions in proportion to their demand, giving the
+     * cabs left over by rounding down to the largest remainders.
+     *
+     * @param demand      forecast demand of every region
+     * @param totalDemand sum of the demand of all the regions
+     * @param idleTotal   number of idle cabs to split
+     * @return target number of idle cabs of every region
+     */
+    private static int[] apportion(double[] demand, double totalDemand, int idleTotal) {
+        int[] targets = new int[demand.length];
+        double[] remainders = new double[demand.length];
+        int assigned = 0;
+        for (int region = 0; region < demand.length; region++) {
+            double share = idleTotal * demand[region] / totalDemand;
+            targets[region] = (int) share;
+            remainders[region] = share - targets[region];
+            assigned += targets[region];
+        }
+        for (; assigned < idleTotal; assigned++) {
+            int largest = 0;
+            for (int region = 1; region < demand.length; region++) {
+                if (remainders[region] > remainders[largest]) {
+                    largest = region;
+                }
+            }
+            targets[largest]++;
+            remainders[largest] = -1;
+        }
+        return targets;
+    }
+
+    /**
+     * Transport problem between supply and demand regions, solved as a min-cost flow by
+     * successive shortest paths on its residual network. The network has a source, one node
+     * per supply, one node per demand and a sink; supply-to-demand arcs are uncapacitated.
+     */
+    private static final class TransportProblem {
+        private final int supplyCount;
+        private final int demandCount;
+        private final double[][] costs;
+        private final int[][] flows;
+        private final int[] supplies;
+        private final int[] demands;
+
+        /**
+         * Constructs a new {@code TransportProblem} with no supply and no demand.
+         *
+         * @param supplyCount number of supply regions
+         * @param demandCount number of demand regions
+         */
+        TransportProblem(int supplyCount, int demandCount) {
+            this.supplyCount = supplyCount;
+            this.demandCount = demandCount;
+            this.costs = new double[supplyCount][demandCount];
+            this.flows = new int[supplyCount][demandCount];
+            this.supplies = new int[supplyCount];
+            this.demands = new int[demandCount];
+        }
+
+        /**
+         * Setter method for the number of cabs a supply region sends
+         *
+         * @param supply index of the supply region
+         * @param amount number of idle cabs in excess
+         */
+        void setSupply(int supply, int amount) {
+            supplies[supply] = amount;
+        }
+
+        /**
+         * Setter method for the number of cabs a demand region lacks
+         *
+         * @param demand index of the demand region
+         * @param amount number of idle cabs missing
+         */
+        void setDemand(int demand, int amount) {
+            demands[demand] = amount;
+        }
+
+        /**
+         * Setter method for the cost of sending a cab between two regions
+         *
+         * @param supply index of the supply region
+         * @param demand index of the demand region
+         * @param cost   road distance between the centers of the regions
+         */
+        void setCost(int supply, int demand, double cost) {
+            costs[supply][demand] = cost;
+        }
+
+        /**
+         * Finds the cheapest augmenting path from a supply with cabs left to a demand still
+         * lacking cabs and pushes as much flow along it as possible. A path may cancel flow
+         * sent before on a reverse arc.
+         *
+         * @return true if flow was pushed, false if no path is left
+         */
+        boolean augment() {
+            // Bellman-Ford over the bipartite residual network, the supply nodes seeded
+            // with distance 0 when they still have cabs to send.
+            int nodeCount = supplyCount + demandCount;
+            double[] distances = new double[nodeCount];
+            int[] previous = new int[nodeCount];
+            Arrays.fill(distances, Double.POSITIVE_INFINITY);
+            Arrays.fill(previous, -1);
+            for (int s = 0; s < supplyCount; s++) {
+                if (supplies[s] > 0) {
+                    distances[s] = 0;
+                }
+            }
+            for (int round = 0; round < nodeCount; round++) {
+                boolean relaxed = false;
+                for (int s = 0; s < supplyCount; s++) {
+                    for (int d = 0; d < demandCount; d++) {
+                        int demandNode = supplyCount + d;
+                        if (distances[s] + costs[s][d] < distances[demandNode]) {
+                            distances[demandNode] = distances[s] + costs[s][d];
+                            previous[demandNode] = s;
+                            relaxed = true;
+                        }
+                        if (flows[s][d] > 0 && distances[demandNode] - costs[s][d] < distances[s]) {
+                            distances[s] = distances[demandNode] - costs[s][d];
+                            previous[s] = demandNode;
+                            relaxed = true;
+                        }
+                    }
+                }
+                if (!relaxed) {
+                    break;
+                }
+            }
+
+            int sink = -1;
+            for (int d = 0; d < demandCount; d++) {
+                int demandNode = supplyCount + d;
+                if (demands[d] > 0 && distances[demandNode] < Double.POSITIVE_INFINITY
+                        && (sink < 0 || distances[demandNode] < distances[sink])) {
+                    sink = demandNode;
+                }
+            }
+            if (sink < 0) {
+                return false;
+            }
+
+            int amount = demands[sink - supplyCount];
+            int node = sink;
+            while (previous[node] >= 0) {
+                int from = previous[node];
+                if (node < supplyCount) {
+                    amount = Math.min(amount, flows[node][from - supplyCount]);
+                }
+                node = from;
+            }
+            int origin = node;
+            amount = Math.min(amount, supplies[origin]);
+
+            node = sink;
+            while (previous[node] >= 0) {
+                int from = previous[node];
+                if (node >= supplyCount) {
+                    flows[from][node - supplyCount] += amount;
+                } else {
+                    flows[node][from - supplyCount] -= amount;
+                }
+                node = from;
+            }
+            supplies[origin] -= amount;
+            demands[sink - supplyCount] -= amount;
+            return true;
+        }
+
+        /**
+         * Getter method for the flow between two regions
+         *
+         * @param supply index of the supply region
+         * @param demand index of the demand region
+         * @return number of cabs sent from the supply region to the demand region
+         */
+        int getFlow(int supply, int demand) {
+            return flows[supply][demand];
+        }
+    }
+}
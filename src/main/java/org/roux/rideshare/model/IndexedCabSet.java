@@ -0,0 +1,100 @@
+package org.roux.rideshare.model;
+
+import java.util.Arrays;
+
+/**
+ * The {@code IndexedCabSet} class is a set of cab ids with constant time insertion, removal
+ * and membership checks. Members are kept densely packed in an array, and each cab stores
+ * its index in that array, so a removal moves the last member into the freed slot.
+ *
+ * @author Venkateshprasad, Prajwal, Gaurav
+ * @version 1.0
+ */
+public class IndexedCabSet {
+    private static final int ABSENT = -1;
+    private final int[] members;
+    private final int[] indexOf;
+    private int size;
+
+    /**
+     * Constructs a new empty {@code IndexedCabSet} for cab ids below the specified capacity.
+     *
+     * @param capacity number of cabs in the fleet
+     */
+    public IndexedCabSet(int capacity) {
+        this.members = new int[capacity];
+        this.indexOf = new int[capacity];
+        Arrays.fill(indexOf, ABSENT);
+    }
+
+    /**
+     * Adds a cab to the set.
+     *
+     * @param cab id of the cab
+     * @return true if the cab was added, false if it was already a member
+     */
+    public boolean add(int cab) {
+        if (indexOf[cab] != ABSENT) {
+            return false;
+        }
+        members[size] = cab;
+        indexOf[cab] = size++;
+        return true;
+    }
+
+    /**
+     * Removes a cab from the set by moving the last member into its slot.
+     *
+     * @param cab id of the cab
+     * @return true if the cab was removed, false if it was not a member
+     */
+    public boolean remove(int cab) {
+        int index = indexOf[cab];
+        if (index == ABSENT) {
+            return false;
+        }
+        int last = members[--size];
+        members[index] = last;
+        indexOf[last] = index;
+        indexOf[cab] = ABSENT;
+        return true;
+    }
+
+    /**
+     * Checks whether a cab is a member of the set.
+     *
+     * @param cab id of the cab
+     * @return true if the cab is a member, else false
+     */
+    public boolean contains(int cab) {
+        return indexOf[cab] != ABSENT;
+    }
+
+    /**
+     * Returns the member at a position of the set. Positions change when members are removed.
+     *
+     * @param index position in the set, between 0 and size - 1
+     * @return id of the cab at the position
+     */
+    public int get(int index) {
+        return members[index];
+    }
+
+    /**
+     * Getter method for size attribute
+     *
+     * @return number of cabs in the set
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether the set has no members.
+     *
+     * @return true if the set is empty, else false
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+}
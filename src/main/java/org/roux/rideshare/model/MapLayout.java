@@ -14,6 +14,8 @@ import java.util.*;
  */
 public class MapLayout {
     private final Map<Integer, List<Lane>> verticesAdjList = new HashMap<>();
+    private double[] nodePositionsX = new double[0];
+    private double[] nodePositionsY = new double[0];
     private static final Random random = new Random();
     private final int[][] horizontalLanes = {
             {1, 2, 3, 4, 5},        // Lane 1
@@ -91,11 +93,157 @@ public class MapLayout {
             int source = verticesPair[0];
             int target = verticesPair[1];
             double weight = 1 + random.nextInt(10); // Random weight between 1 and 10
-            verticesAdjList.computeIfAbsent(source, k -> new ArrayList<>()).add(new Lane(target, weight));
-            verticesAdjList.computeIfAbsent(target, k -> new ArrayList<>()).add(new Lane(source, weight));
+            addLane(source, target, weight);
+            addLane(target, source, weight);
         }
     }
 
+    /**
+     * Generates a square grid of roads instead of the built-in map, for fleet-scale tests.
+     * Every road joins neighbouring nodes in both directions with a random weight between
+     * 1 and 10 units. The nodes are numbered from 1 row by row and placed evenly on a drawing
+     * area of the given size, so {@link #layoutNodes} must not be called for this map.
+     *
+     * @param nodeCount number of nodes of the grid
+     * @param width     width of the drawing area
+     * @param height    height of the drawing area
+     */
+    public void generateGridStructure(int nodeCount, double width, double height) {
+        int columns = (int) Math.ceil(Math.sqrt(nodeCount));
+        int rows = (nodeCount + columns - 1) / Math.max(1, columns);
+        nodePositionsX = new double[nodeCount + 1];
+        nodePositionsY = new double[nodeCount + 1];
+        for (int node = 1; node <= nodeCount; node++) {
+            int column = (node - 1) % columns;
+            int row = (node - 1) / columns;
+            nodePositionsX[node] = (column + 1) * (width / (columns + 1));
+            nodePositionsY[node] = (row + 1) * (height / (rows + 1));
+            if (column + 1 < columns && node + 1 <= nodeCount) {
+                double weight = 1 + random.nextInt(10);
+                addLane(node, node + 1, weight);
+                addLane(node + 1, node, weight);
+            }
+            if (node + columns <= nodeCount) {
+                double weight = 1 + random.nextInt(10);
+                addLane(node, node + columns, weight);
+                addLane(node + columns, node, weight);
+            }
+        }
+    }
+
+    /**
+     * Adds a directed lane to the adjacency list of the graph. Used to restore a graph
+     * that was built before, e.g. from a snapshot, instead of generating new weights.
+     *
+     * @param source source node of the lane
+     * @param target target node of the lane
+     * @param weight weight of the lane
+     */
+    public void addLane(int source, int target, double weight) {
+        verticesAdjList.computeIfAbsent(source, k -> new ArrayList<>()).add(new Lane(target, weight));
+    }
+
+    /**
+     * Copies the lanes of the map into a new layout, so the copy can be laid out and used on
+     * another thread without touching the node positions of this one.
+     *
+     * @return new layout with the same lanes and no node positions
+     */
+    public MapLayout copyLanes() {
+        MapLayout copy = new MapLayout();
+        verticesAdjList.forEach((source, lanes) -> lanes.forEach(lane ->
+                copy.addLane(source, lane.getTarget(), lane.getWeight())));
+        return copy;
+    }
+
+    /**
+     * Places the nodes of the map on a drawing area of the given size. Nodes of the same
+     * vertical lane share an x coordinate and nodes of the same horizontal lane share a y
+     * coordinate, with the lanes spread evenly across the area.
+     *
+     * @param width  width of the drawing area
+     * @param height height of the drawing area
+     */
+    public void layoutNodes(double width, double height) {
+        int maxNode = 0;
+        for (int[] lane : verticalLanes) {
+            for (int node : lane) {
+                maxNode = Math.max(maxNode, node);
+            }
+        }
+        nodePositionsX = new double[maxNode + 1];
+        nodePositionsY = new double[maxNode + 1];
+        for (int i = 0; i < verticalLanes.length; i++) {
+            double xCoordinate = (i + 1) * (width / (verticalLanes.length + 1));
+            for (int node : verticalLanes[i]) {
+                nodePositionsX[node] = xCoordinate;
+            }
+        }
+        for (int i = 0; i < horizontalLanes.length; i++) {
+            double yCoordinate = (i + 1) * (height / (horizontalLanes.length + 1));
+            for (int node : horizontalLanes[i]) {
+                nodePositionsY[node] = yCoordinate;
+            }
+        }
+    }
+
+    /**
+     * Places a node at a position, e.g. restored from a snapshot, growing the position
+     * arrays as needed.
+     *
+     * @param node node of the graph
+     * @param x    x coordinate of the node
+     * @param y    y coordinate of the node
+     */
+    public void setNodePosition(int node, double x, double y) {
+        if (node >= nodePositionsX.length) {
+            nodePositionsX = Arrays.copyOf(nodePositionsX, node + 1);
+            nodePositionsY = Arrays.copyOf(nodePositionsY, node + 1);
+        }
+        nodePositionsX[node] = x;
+        nodePositionsY[node] = y;
+    }
+
+    /**
+     * Checks whether the nodes have been placed, by {@link #layoutNodes}, by a generated grid
+     * or from a snapshot.
+     *
+     * @return true if the nodes have positions, else false
+     */
+    public boolean hasNodePositions() {
+        return nodePositionsX.length > 0;
+    }
+
+    /**
+     * Checks whether a node has a position.
+     *
+     * @param node node of the graph
+     * @return true if the node has a position, else false
+     */
+    public boolean hasNodePosition(int node) {
+        return node >= 0 && node < nodePositionsX.length;
+    }
+
+    /**
+     * Getter method for the x coordinate of a node, as placed by {@link #layoutNodes}
+     *
+     * @param node node of the graph
+     * @return x coordinate of the node
+     */
+    public double getNodeX(int node) {
+        return nodePositionsX[node];
+    }
+
+    /**
+     * Getter method for the y coordinate of a node, as placed by {@link #layoutNodes}
+     *
+     * @param node node of the graph
+     * @return y coordinate of the node
+     */
+    public double getNodeY(int node) {
+        return nodePositionsY[node];
+    }
+
     /**
      * Getter method for verticalLanes attribute
      *
@@ -3,15 +3,26 @@ package org.roux.rideshare.model;
 /**
  * The {@code Passenger} class represents a passenger in the cab of ride-sharing
  * application. Each passenger has a source, destination and preference to share
- * ride.
+ * ride. A sharing passenger also sets how much longer than the direct route the
+ * shared ride may be, and how long the cab may take to arrive.
  *
  * @author Venkateshprasad, Prajwal, Gaurav
  * @version 1.0
  */
 public class Passenger {
+    /**
+     * Default extra distance of a shared ride, as a fraction of the direct route
+     */
+    public static final double DEFAULT_MAX_DETOUR_RATIO = 0.5;
+    /**
+     * Default time a passenger waits for a shared cab, in seconds
+     */
+    public static final double DEFAULT_MAX_WAIT_SECONDS = 120;
     private Integer source;
     private Integer destination;
     private boolean shareRide;
+    private double maxDetourRatio = DEFAULT_MAX_DETOUR_RATIO;
+    private double maxWaitSeconds = DEFAULT_MAX_WAIT_SECONDS;
 
     /**
      * Constructs a new {@code Passenger} with specified source, destination and
@@ -81,6 +92,53 @@ public class Passenger {
         this.shareRide = shareRide;
     }
 
+    /**
+     * Getter method for maxDetourRatio attribute
+     *
+     * @return extra distance of a shared ride the passenger accepts, as a fraction of the direct route
+     */
+    public double getMaxDetourRatio() {
+        return maxDetourRatio;
+    }
+
+    /**
+     * Setter method for maxDetourRatio attribute
+     *
+     * @param maxDetourRatio extra distance of a shared ride the passenger accepts, as a fraction
+     *                       of the direct route
+     */
+    public void setMaxDetourRatio(double maxDetourRatio) {
+        this.maxDetourRatio = maxDetourRatio;
+    }
+
+    /**
+     * Getter method for maxWaitSeconds attribute
+     *
+     * @return time the passenger waits for a shared cab, in seconds
+     */
+    public double getMaxWaitSeconds() {
+        return maxWaitSeconds;
+    }
+
+    /**
+     * Setter method for maxWaitSeconds attribute
+     *
+     * @param maxWaitSeconds time the passenger waits for a shared cab, in seconds
+     */
+    public void setMaxWaitSeconds(double maxWaitSeconds) {
+        this.maxWaitSeconds = maxWaitSeconds;
+    }
+
+    /**
+     * Computes the longest shared ride the passenger accepts.
+     *
+     * @param directDistance road distance of the direct route
+     * @return largest in-vehicle distance of a shared ride
+     */
+    public double detourLimit(double directDistance) {
+        return directDistance * (1 + maxDetourRatio);
+    }
+
     /**
      * To String method for {@code Passenger}
      *
@@ -0,0 +1,206 @@
+package org.roux.rideshare.model;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * The {@code RegionPartition} class splits the nodes of a {@link MapLayout} into regions.
+ * Every region has a center node, the node of the region closest to its centroid, which
+ * stands for the region when cabs are sent there.
+ *
+ * @author Venkateshprasad, Prajwal, Gaurav
+ * @version 1.0
+ */
+public class RegionPartition {
+    private static final int NO_REGION = -1;
+    private final int[] regionOfNode;
+    private final int[] centerNodes;
+
+    /**
+     * Constructs a new {@code RegionPartition} from the region of every node. Region ids
+     * must be dense, from 0 to the number of regions - 1.
+     *
+     * @param mapLayout    layout of the map with its node positions
+     * @param regionOfNode region of every node id, -1 for ids that are not nodes
+     * @param regionCount  number of regions
+     */
+    public RegionPartition(MapLayout mapLayout, int[] regionOfNode, int regionCount) {
+        this.regionOfNode = regionOfNode;
+        this.centerNodes = new int[regionCount];
+        double[] sumX = new double[regionCount];
+        double[] sumY = new double[regionCount];
+        int[] counts = new int[regionCount];
+        for (int node = 0; node < regionOfNode.length; node++) {
+            int region = regionOfNode[node];
+            if (region != NO_REGION) {
+                sumX[region] += mapLayout.getNodeX(node);
+                sumY[region] += mapLayout.getNodeY(node);
+                counts[region]++;
+            }
+        }
+        double[] closest = new double[regionCount];
+        Arrays.fill(closest, Double.MAX_VALUE);
+        for (int node = 0; node < regionOfNode.length; node++) {
+            int region = regionOfNode[node];
+            if (region != NO_REGION) {
+                double distance = Math.hypot(mapLayout.getNodeX(node) - sumX[region] / counts[region],
+                        mapLayout.getNodeY(node) - sumY[region] / counts[region]);
+                if (distance < closest[region]) {
+                    closest[region] = distance;
+                    centerNodes[region] = node;
+                }
+            }
+        }
+    }
+
+    /**
+     * Splits the laid out nodes of a map into a grid of equal rectangles. Rectangles without
+     * nodes do not become regions.
+     *
+     * @param mapLayout layout of the map with its node positions
+     * @param columns   number of columns of the grid
+     * @param rows      number of rows of the grid
+     * @return partition of the map into grid regions
+     */
+    public static RegionPartition grid(MapLayout mapLayout, int columns, int rows) {
+        int[] nodes = mapLayout.getVerticesAdjList().keySet().stream().mapToInt(Integer::intValue).toArray();
+        double minX = Double.MAX_VALUE;
+        double minY = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE;
+        double maxY = -Double.MAX_VALUE;
+        int maxNode = 0;
+        for (int node : nodes) {
+            minX = Math.min(minX, mapLayout.getNodeX(node));
+            minY = Math.min(minY, mapLayout.getNodeY(node));
+            maxX = Math.max(maxX, mapLayout.getNodeX(node));
+            maxY = Math.max(maxY, mapLayout.getNodeY(node));
+            maxNode = Math.max(maxNode, node);
+        }
+        double cellWidth = Math.max((maxX - minX) / columns, Double.MIN_VALUE);
+        double cellHeight = Math.max((maxY - minY) / rows, Double.MIN_VALUE);
+        int[] cellIds = new int[columns * rows];
+        Arrays.fill(cellIds, NO_REGION);
+        int[] regionOfNode = new int[maxNode + 1];
+        Arrays.fill(regionOfNode, NO_REGION);
+        int regionCount = 0;
+        for (int node : nodes) {
+            int column = Math.min(columns - 1, (int) ((mapLayout.getNodeX(node) - minX) / cellWidth));
+            int row = Math.min(rows - 1, (int) ((mapLayout.getNodeY(node) - minY) / cellHeight));
+            int cell = row * columns + column;
+            if (cellIds[cell] == NO_REGION) {
+                cellIds[cell] = regionCount++;
+            }
+            regionOfNode[node] = cellIds[cell];
+        }
+        return new RegionPartition(mapLayout, regionOfNode, regionCount);
+    }
+
+    /**
+     * Splits the laid out nodes of a map into regions of about the same number of nodes by
+     * recursive coordinate bisection: each step cuts a set of nodes across its longer side,
+     * at the node that shares the set in proportion to the regions on either side. Like the
+     * lanes of the map, the cuts follow its rows and columns, so few lanes cross them.
+     *
+     * @param mapLayout   layout of the map with its node positions
+     * @param regionCount number of regions, at most the number of nodes
+     * @return partition of the map into balanced regions
+     */
+    public static RegionPartition bisect(MapLayout mapLayout, int regionCount) {
+        int[] nodes = mapLayout.getVerticesAdjList().keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+        int[] regionOfNode = new int[nodes.length == 0 ? 0 : nodes[nodes.length - 1] + 1];
+        Arrays.fill(regionOfNode, NO_REGION);
+        bisect(mapLayout, nodes, regionCount, 0, regionOfNode);
+        return new RegionPartition(mapLayout, regionOfNode, regionCount);
+    }
+
+    /**
+     * Assigns a set of nodes to consecutive regions, cutting it in two while more than one
+     * region is left.
+     *
+     * @param mapLayout    layout of the map with its node positions
+     * @param nodes        nodes to assign
+     * @param regionCount  number of regions to split the nodes into
+     * @param firstRegion  id of the first of those regions
+     * @param regionOfNode region of every node id, filled in
+     */
+    private static void bisect(MapLayout mapLayout, int[] nodes, int regionCount, int firstRegion,
+                               int[] regionOfNode) {
+        if (regionCount == 1) {
+            for (int node : nodes) {
+                regionOfNode[node] = firstRegion;
+            }
+            return;
+        }
+        double minX = Double.MAX_VALUE;
+        double minY = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE;
+        double maxY = -Double.MAX_VALUE;
+        for (int node : nodes) {
+            minX = Math.min(minX, mapLayout.getNodeX(node));
+            minY = Math.min(minY, mapLayout.getNodeY(node));
+            maxX = Math.max(maxX, mapLayout.getNodeX(node));
+            maxY = Math.max(maxY, mapLayout.getNodeY(node));
+        }
+        boolean cutAcrossX = maxX - minX >= maxY - minY;
+        int[] sorted = Arrays.stream(nodes).boxed()
+                .sorted(Comparator.comparingDouble(node -> cutAcrossX ? mapLayout.getNodeX(node) : mapLayout.getNodeY(node)))
+                .mapToInt(Integer::intValue).toArray();
+        int leftRegions = regionCount / 2;
+        int cut = (int) ((long) sorted.length * leftRegions / regionCount);
+        bisect(mapLayout, Arrays.copyOfRange(sorted, 0, cut), leftRegions, firstRegion, regionOfNode);
+        bisect(mapLayout, Arrays.copyOfRange(sorted, cut, sorted.length), regionCount - leftRegions,
+                firstRegion + leftRegions, regionOfNode);
+    }
+
+    /**
+     * Collects the nodes of a region.
+     *
+     * @param region id of the region
+     * @return nodes of the region in increasing order
+     */
+    public int[] nodesOf(int region) {
+        int count = 0;
+        for (int nodeRegion : regionOfNode) {
+            if (nodeRegion == region) {
+                count++;
+            }
+        }
+        int[] nodes = new int[count];
+        count = 0;
+        for (int node = 0; node < regionOfNode.length; node++) {
+            if (regionOfNode[node] == region) {
+                nodes[count++] = node;
+            }
+        }
+        return nodes;
+    }
+
+    /**
+     * Finds the region of a node.
+     *
+     * @param node node of the graph
+     * @return region of the node, -1 if the node is unknown
+     */
+    public int regionOf(int node) {
+        return node >= 0 && node < regionOfNode.length ? regionOfNode[node] : NO_REGION;
+    }
+
+    /**
+     * Getter method for the number of regions
+     *
+     * @return number of regions
+     */
+    public int getRegionCount() {
+        return centerNodes.length;
+    }
+
+    /**
+     * Getter method for the center node of a region
+     *
+     * @param region id of the region
+     * @return node of the region closest to its centroid
+     */
+    public int getCenterNode(int region) {
+        return centerNodes[region];
+    }
+}
@@ -0,0 +1,264 @@
+package org.roux.rideshare.model;
+
+import org.roux.rideshare.utils.LegDistanceCache;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The {@code RideQuoteService} class quotes the fare and the times of a ride before it is
+ * booked, for a solo ride and for a shared one. Quotes pick the cab the {@link CabPool} would
+ * book at that moment but book nothing, and all the road distances come from a
+ * {@link LegDistanceCache}, so a price check costs a few table reads once its legs are known.
+ * The idle cab closest to a source is remembered until a cab changes state, so repeated
+ * price checks do not search the map again. A booking made with
+ * {@link CabPool#bookRide(RideRequest, int)} for the quoted cab, and routed along the stops
+ * of {@link #quoteBooked(int)}, drives and charges exactly what was quoted.
+ * Like the pool, the service is meant to be called from the thread that books the cabs.
+ *
+ * @author Venkateshprasad, Prajwal, Gaurav
+ * @version 1.0
+ */
+public class RideQuoteService {
+    /**
+     * Road distance charged one unit of fare
+     */
+    public static final double DISTANCE_PER_FARE = 10;
+    /**
+     * Road distance a cab travels in one second
+     */
+    public static final double DISTANCE_PER_SECOND = 2;
+    private final CabPool cabPool;
+    private final MapLayout mapLayout;
+    private final LegDistanceCache legDistances;
+    private final Map<Integer, Integer> nearestIdleBySource = new HashMap<>();
+    private long nearestIdleVersion = -1;
+
+    /**
+     * Record to maintain a quote for a ride
+     *
+     * @param cabId         id of the cab that would be booked
+     * @param distance      road distance of the route of the cab
+     * @param fare          fare of the passenger
+     * @param pickupSeconds time until the cab reaches the passenger, in seconds
+     * @param tripSeconds   time from the pickup to the destination of the passenger, in seconds
+     * @param finishSeconds time until the cab ends its route, in seconds
+     * @param lastNode      node where the route of the cab ends
+     * @param stops         node the cab starts from, then the nodes where it picks up and drops off
+     *                      passengers, in order; the cab drives along the stops in finishSeconds
+     */
+    public record Quote(int cabId, double distance, double fare, double pickupSeconds, double tripSeconds,
+                        double finishSeconds, int lastNode, int[] stops) {
+    }
+
+    /**
+     * Constructs a new {@code RideQuoteService} for the cabs of a pool.
+     *
+     * @param cabPool      pool of cabs to quote from
+     * @param mapLayout    layout of the map with its node positions
+     * @param legDistances cache of the road distances of single legs
+     */
+    public RideQuoteService(CabPool cabPool, MapLayout mapLayout, LegDistanceCache legDistances) {
+        this.cabPool = cabPool;
+        this.mapLayout = mapLayout;
+        this.legDistances = legDistances;
+    }
+
+    /**
+     * Computes the fare of a route.
+     *
+     * @param distance road distance of the route
+     * @return fare of the route
+     */
+    public static double fareOf(double distance) {
+        return distance / DISTANCE_PER_FARE;
+    }
+
+    /**
+     * Computes the time a cab takes to drive a route.
+     *
+     * @param distance road distance of the route
+     * @return driving time in seconds
+     */
+    public static double secondsOf(double distance) {
+        return distance / DISTANCE_PER_SECOND;
+    }
+
+    /**
+     * Quotes a solo ride, in the idle cab closest to the source by road.
+     *
+     * @param source      source node of the passenger
+     * @param destination destination node of the passenger
+     * @return quote of the ride, null if no cab is available
+     */
+    public Quote quoteSolo(int source, int destination) {
+        int cab = nearestIdleCab(source);
+        if (cab < 0) {
+            return null;
+        }
+        return planSolo(cab, pickupDistanceOf(cab, source), source, destination);
+    }
+
+    /**
+     * Matches a request to the cab a quote would pick for it: a cab it can share if the
+     * passenger shares the ride and one fits, else the idle cab closest to the source.
+     *
+     * @param request ride request
+     * @return id of the matched cab, -1 if no cab is available
+     */
+    public int match(RideRequest request) {
+        int cab = request.shareRide() ? cabPool.findShareCandidate(request, mapLayout) : -1;
+        return cab >= 0 ? cab : nearestIdleCab(request.source());
+    }
+
+    /**
+     * Quotes a request in a cab it was matched to by {@link #match(RideRequest)}, without
+     * matching it again. A cab with a ride on board is quoted as a shared route.
+     *
+     * @param request ride request
+     * @param cab     id of the matched cab
+     * @return quote of the ride in the cab
+     */
+    public Quote quote(RideRequest request, int cab) {
+        if (cabPool.getFleet().getSeatsUsed(cab) > 0) {
+            return planShared(cab, request.source(), request.destination(), request.maxDetourRatio());
+        }
+        return planSolo(cab, pickupDistanceOf(cab, request.source()), request.source(), request.destination());
+    }
+
+    /**
+     * Computes the road distance from the node of a cab to a source. A cab that cannot reach
+     * the source by road is quoted as if it stood on it, as the pool books it all the same.
+     *
+     * @param cab    id of the cab
+     * @param source source node of the passenger
+     * @return road distance from the cab to the source
+     */
+    private double pickupDistanceOf(int cab, int source) {
+        double pickupDistance = legDistances.distance(cabPool.getFleet().getCurrentNode(cab), source);
+        return pickupDistance < Double.POSITIVE_INFINITY ? pickupDistance : 0;
+    }
+
+    /**
+     * Finds the idle cab closest to a source, remembering the answers until the idle cabs
+     * of the pool change.
+     *
+     * @param source source node of the passenger
+     * @return id of the idle cab, -1 if no cab is idle
+     */
+    private int nearestIdleCab(int source) {
+        if (nearestIdleVersion != cabPool.getIdleVersion()) {
+            nearestIdleBySource.clear();
+            nearestIdleVersion = cabPool.getIdleVersion();
+        }
+        return nearestIdleBySource.computeIfAbsent(source, node -> cabPool.findNearestIdleCab(node, mapLayout));
+    }
+
+    /**
+     * Plans the route of a solo ride. The route starts from the node of the cab, and the
+     * passenger pays for the trip from the source only.
+     *
+     * @param cab            id of the cab
+     * @param pickupDistance road distance from the cab to the source
+     * @param source         source node of the passenger
+     * @param destination    destination node of the passenger
+     * @return quote of the solo route
+     */
+    private Quote planSolo(int cab, double pickupDistance, int source, int destination) {
+        double distance = legDistances.distance(source, destination);
+        int[] stops = pickupDistance > 0
+                ? new int[]{cabPool.getFleet().getCurrentNode(cab), source, destination}
+                : new int[]{source, destination};
+        return new Quote(cab, distance, fareOf(distance), secondsOf(pickupDistance), secondsOf(distance),
+                secondsOf(pickupDistance + distance), destination, stops);
+    }
+
+    /**
+     * Quotes a shared ride with the default detour and waiting limits of a {@link Passenger}.
+     *
+     * @param source      source node of the passenger
+     * @param destination destination node of the passenger
+     * @return quote of the ride, null if no cab is available
+     */
+    public Quote quoteShared(int source, int destination) {
+        return quoteShared(new RideRequest(0, source, destination, true));
+    }
+
+    /**
+     * Quotes a shared ride. If a cab within the share radius has a free seat and can take
+     * the passenger within the detour and waiting limits, the route of the cab picks up the
+     * passenger after its first passenger and drops off whoever is closer first, unless
+     * that order breaks a detour limit, and both passengers split the fare of the route.
+     * Otherwise the ride starts a new shared cab and is quoted like a solo ride.
+     *
+     * @param request ride request of the sharing passenger
+     * @return quote of the ride, null if no cab is available
+     */
+    public Quote quoteShared(RideRequest request) {
+        int cab = cabPool.findShareCandidate(request, mapLayout);
+        if (cab < 0) {
+            return quoteSolo(request.source(), request.destination());
+        }
+        return planShared(cab, request.source(), request.destination(), request.maxDetourRatio());
+    }
+
+    /**
+     * Quotes the current route of a booked cab from the rides on board, so the route a cab
+     * drives follows the drop-off order its booking was quoted with. A cab with one ride is
+     * quoted from its node, where it waited for the booking, like a solo ride.
+     *
+     * @param cabId id of a booked cab
+     * @return quote of the route of the cab, null if the cab is idle
+     */
+    public Quote quoteBooked(int cabId) {
+        FleetStore fleet = cabPool.getFleet();
+        RideRecordStore rides = fleet.getRides();
+        int seatsUsed = fleet.getSeatsUsed(cabId);
+        if (seatsUsed == 0) {
+            return null;
+        }
+        int lastRide = fleet.getRideId(cabId, seatsUsed - 1);
+        int source = rides.getSource(lastRide);
+        int destination = rides.getDestination(lastRide);
+        if (seatsUsed == 1) {
+            return planSolo(cabId, pickupDistanceOf(cabId, source), source, destination);
+        }
+        return planShared(cabId, source, destination, rides.getMaxDetourRatio(lastRide));
+    }
+
+    /**
+     * Plans the route of a shared cab taking a second passenger: the cab picks up the
+     * passenger after its first passenger and drops off whoever is closer first, unless that
+     * order breaks a detour limit.
+     *
+     * @param cab            id of the shared cab
+     * @param source         source node of the second passenger
+     * @param destination    destination node of the second passenger
+     * @param maxDetourRatio detour ratio the second passenger accepts
+     * @return quote of the shared route
+     */
+    private Quote planShared(int cab, int source, int destination, double maxDetourRatio) {
+        RideRecordStore rides = cabPool.getFleet().getRides();
+        int firstRide = cabPool.getFleet().getRideId(cab, 0);
+        int firstSource = rides.getSource(firstRide);
+        int firstDestination = rides.getDestination(firstRide);
+        double firstBudget = rides.detourLimit(firstRide, legDistances.distance(firstSource, firstDestination));
+        double pickupDistance = legDistances.distance(firstSource, source);
+        double firstDropOff = legDistances.distance(source, firstDestination);
+        double viaFirstDestination = firstDropOff + legDistances.distance(firstDestination, destination);
+        double direct = legDistances.distance(source, destination);
+        double viaDestination = direct + legDistances.distance(destination, firstDestination);
+        boolean firstDropOffFits = pickupDistance + firstDropOff <= firstBudget
+                && viaFirstDestination <= direct * (1 + maxDetourRatio);
+        boolean destinationFits = pickupDistance + viaDestination <= firstBudget;
+        boolean firstDropsOffFirst = firstDropOffFits && (!destinationFits || viaFirstDestination <= viaDestination);
+        double tripDistance = firstDropsOffFirst ? viaFirstDestination : direct;
+        double remainingDistance = firstDropsOffFirst ? viaFirstDestination : viaDestination;
+        double distance = pickupDistance + remainingDistance;
+        return new Quote(cab, distance, fareOf(distance) / FleetStore.SEATS, secondsOf(pickupDistance),
+                secondsOf(tripDistance), secondsOf(distance),
+                firstDropsOffFirst ? destination : firstDestination, firstDropsOffFirst
+                ? new int[]{firstSource, source, firstDestination, destination}
+                : new int[]{firstSource, source, destination, firstDestination});
+    }
+}
@@ -0,0 +1,175 @@
+package org.roux.rideshare.model;
+
+import java.util.Arrays;
+
+/**
+ * The {@code RideRecordStore} class holds the rides of the passengers on board in a slab of
+ * primitive arrays indexed by ride id. A ride is written into a free slot when it is booked
+ * and its id goes back to a free list when the passenger is dropped off, so the steady state
+ * of dispatch allocates nothing per ride. The slab is preallocated for a full fleet and only
+ * grows if more rides are held at once. {@link Passenger} objects are built from a record
+ * only for the user interface.
+ *
+ * @author Venkateshprasad, Prajwal, Gaurav
+ * @version 1.0
+ */
+public class RideRecordStore {
+    private int[] sources;
+    private int[] destinations;
+    private boolean[] shareRides;
+    private double[] maxDetourRatios;
+    private double[] maxWaits;
+    private int[] freeIds;
+    private int freeCount;
+    private int capacity;
+
+    /**
+     * Constructs a new {@code RideRecordStore} with all the ids of the specified capacity free.
+     *
+     * @param capacity number of rides held at once before the slab grows
+     */
+    public RideRecordStore(int capacity) {
+        this.sources = new int[0];
+        this.destinations = new int[0];
+        this.shareRides = new boolean[0];
+        this.maxDetourRatios = new double[0];
+        this.maxWaits = new double[0];
+        this.freeIds = new int[0];
+        grow(Math.max(capacity, 1));
+    }
+
+    /**
+     * Writes a ride into a free slot of the store.
+     *
+     * @param source         source node of the passenger
+     * @param destination    destination node of the passenger
+     * @param shareRide      preference of sharing ride
+     * @param maxDetourRatio extra distance of a shared ride the passenger accepts, as a fraction of the direct route
+     * @param maxWaitSeconds time the passenger waits for a shared cab, in seconds
+     * @return id of the ride
+     */
+    public int allocate(int source, int destination, boolean shareRide, double maxDetourRatio,
+                        double maxWaitSeconds) {
+        if (freeCount == 0) {
+            grow(capacity * 2);
+        }
+        int id = freeIds[--freeCount];
+        sources[id] = source;
+        destinations[id] = destination;
+        shareRides[id] = shareRide;
+        maxDetourRatios[id] = maxDetourRatio;
+        maxWaits[id] = maxWaitSeconds;
+        return id;
+    }
+
+    /**
+     * Releases a ride, making its id available to the next booking.
+     *
+     * @param id id of the ride
+     */
+    public void release(int id) {
+        freeIds[freeCount++] = id;
+    }
+
+    /**
+     * Grows the slab to a new capacity, adding the new ids to the free list so the lowest
+     * ids are handed out first.
+     *
+     * @param newCapacity capacity of the slab
+     */
+    private void grow(int newCapacity) {
+        sources = Arrays.copyOf(sources, newCapacity);
+        destinations = Arrays.copyOf(destinations, newCapacity);
+        shareRides = Arrays.copyOf(shareRides, newCapacity);
+        maxDetourRatios = Arrays.copyOf(maxDetourRatios, newCapacity);
+        maxWaits = Arrays.copyOf(maxWaits, newCapacity);
+        freeIds = Arrays.copyOf(freeIds, newCapacity);
+        for (int id = newCapacity - 1; id >= capacity; id--) {
+            freeIds[freeCount++] = id;
+        }
+        capacity = newCapacity;
+    }
+
+    /**
+     * Getter method for the source of a ride
+     *
+     * @param id id of the ride
+     * @return source node of the passenger
+     */
+    public int getSource(int id) {
+        return sources[id];
+    }
+
+    /**
+     * Getter method for the destination of a ride
+     *
+     * @param id id of the ride
+     * @return destination node of the passenger
+     */
+    public int getDestination(int id) {
+        return destinations[id];
+    }
+
+    /**
+     * Getter method for the sharing preference of a ride
+     *
+     * @param id id of the ride
+     * @return true if the passenger shares the ride, else false
+     */
+    public boolean isShareRide(int id) {
+        return shareRides[id];
+    }
+
+    /**
+     * Getter method for the detour ratio of a ride
+     *
+     * @param id id of the ride
+     * @return extra distance of a shared ride the passenger accepts, as a fraction of the direct route
+     */
+    public double getMaxDetourRatio(int id) {
+        return maxDetourRatios[id];
+    }
+
+    /**
+     * Getter method for the waiting time of a ride
+     *
+     * @param id id of the ride
+     * @return time the passenger waits for a shared cab, in seconds
+     */
+    public double getMaxWaitSeconds(int id) {
+        return maxWaits[id];
+    }
+
+    /**
+     * Computes the longest shared ride the passenger of a ride accepts.
+     *
+     * @param id             id of the ride
+     * @param directDistance road distance of the direct route
+     * @return largest in-vehicle distance of a shared ride
+     */
+    public double detourLimit(int id, double directDistance) {
+        return directDistance * (1 + maxDetourRatios[id]);
+    }
+
+    /**
+     * Builds a {@link Passenger} holding a copy of a ride, for the user interface.
+     *
+     * @param id id of the ride
+     * @return new passenger of the ride
+     */
+    public Passenger toPassenger(int id) {
+        Passenger passenger = new Passenger(sources[id], destinations[id], shareRides[id]);
+        passenger.setMaxDetourRatio(maxDetourRatios[id]);
+        passenger.setMaxWaitSeconds(maxWaits[id]);
+        return passenger;
+    }
+
+    /**
+     * Getter method for the number of rides held
+     *
+     * @return number of allocated rides
+     */
+    public int size() {
+        return capacity - freeCount;
+    }
+}
@@ -0,0 +1,74 @@
+package org.roux.rideshare.model;
+
+/**
+ * Record to maintain a ride request of a trace, as read by the ingestion stage and handed
+ * to the {@link Dispatcher}.
+ *
+ * @param timeMillis     time of the request in milliseconds since the start of the trace
+ * @param source         source node of the passenger
+ * @param destination    destination node of the passenger
+ * @param shareRide      preference of sharing ride
+ * @param maxDetourRatio extra distance of a shared ride the passenger accepts, as a fraction of the direct route
+ * @param maxWaitSeconds time the passenger waits for a shared cab, in seconds
+ * @author Venkateshprasad, Prajwal, Gaurav
+ * @version 1.0
+ */
+public record RideRequest(long timeMillis, int source, int destination, boolean shareRide,
+                          double maxDetourRatio, double maxWaitSeconds) {
+    /**
+     * Marker put after the last request of a stream
+     */
+    public static final RideRequest END_OF_STREAM = new RideRequest(Long.MAX_VALUE, -1, -1, false);
+
+    /**
+     * Constructs a new {@code RideRequest} with the default sharing constraints of a {@link Passenger}.
+     *
+     * @param timeMillis  time of the request in milliseconds since the start of the trace
+     * @param source      source node of the passenger
+     * @param destination destination node of the passenger
+     * @param shareRide   preference of sharing ride
+     */
+    public RideRequest(long timeMillis, int source, int destination, boolean shareRide) {
+        this(timeMillis, source, destination, shareRide, Passenger.DEFAULT_MAX_DETOUR_RATIO,
+                Passenger.DEFAULT_MAX_WAIT_SECONDS);
+    }
+
+    /**
+     * Parses a request from a line of the form {@code time,source,destination,shareRide}, optionally
+     * followed by {@code ,maxDetourRatio,maxWaitSeconds}.
+     *
+     * @param line comma separated fields of the request
+     * @return parsed request
+     * @throws IllegalArgumentException if the line does not hold four or six valid fields
+     */
+    public static RideRequest parse(String line) {
+        String[] fields = line.split(",");
+        if (fields.length != 4 && fields.length != 6) {
+            throw new IllegalArgumentException(
+                    "Expected time,source,destination,shareRide[,maxDetourRatio,maxWaitSeconds] but got: " + line);
+        }
+        try {
+            RideRequest request = new RideRequest(Long.parseLong(fields[0].trim()), Integer.parseInt(fields[1].trim()),
+                    Integer.parseInt(fields[2].trim()), Boolean.parseBoolean(fields[3].trim()));
+            if (fields.length == 4) {
+                return request;
+            }
+            return new RideRequest(request.timeMillis(), request.source(), request.destination(), request.shareRide(),
+                    Double.parseDouble(fields[4].trim()), Double.parseDouble(fields[5].trim()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed request: " + line, e);
+        }
+    }
+
+    /**
+     * Creates the {@link Passenger} making this request.
+     *
+     * @return new passenger of the request
+     */
+    public Passenger toPassenger() {
+        Passenger passenger = new Passenger(source, destination, shareRide);
+        passenger.setMaxDetourRatio(maxDetourRatio);
+        passenger.setMaxWaitSeconds(maxWaitSeconds);
+        return passenger;
+    }
+}
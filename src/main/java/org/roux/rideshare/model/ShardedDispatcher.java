@@ -0,0 +1,238 @@
+package org.roux.rideshare.model;
+
+import org.roux.rideshare.utils.BoundaryDistanceTable;
+import org.roux.rideshare.utils.LandmarkIndex;
+import org.roux.rideshare.utils.LegDistanceCache;
+import org.roux.rideshare.utils.RouteCache;
+import org.roux.rideshare.utils.RoutingEngine;
+import org.roux.rideshare.utils.RoutingEngines;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The {@code ShardedDispatcher} class spreads dispatch over one shard per region of a
+ * {@link RegionPartition}. Each shard owns a {@link CabPool} of cabs placed in its region, a
+ * {@link Dispatcher} and a thread, and shares nothing mutable with the other shards, so
+ * shards book in parallel without locks. Requests go to the shard of their source node.
+ *
+ * <p>A shard that has no cab for a request forwards it to the next shard, in a ring, until
+ * every shard has tried it once. Forwarding only offers the request to the queue of the next
+ * shard; a request that finds that queue full is rejected rather than blocking a shard on
+ * another one. Trips leaving their region are priced with a shared
+ * {@link BoundaryDistanceTable} instead of a search of the whole map, and the shards share one
+ * read-only {@link LandmarkIndex} for the bounded searches of shared-ride matching. The
+ * {@link RouteCache} of every shard gets an equal share of the default memory budget of one cache.
+ *
+ * @author Venkateshprasad, Prajwal, Gaurav
+ * @version 1.0
+ */
+public class ShardedDispatcher {
+    private static final int legCacheCapacity = 1 << 14;
+    private static final int landmarkCount = 4;
+    private final RegionPartition partition;
+    private final List<Shard> shards = new ArrayList<>();
+
+    /**
+     * Record to maintain a request on its way between shards
+     *
+     * @param request ride request
+     * @param hops    number of shards that failed to book the request
+     */
+    private record ShardMessage(RideRequest request, int hops) {
+        static final ShardMessage END = new ShardMessage(RideRequest.END_OF_STREAM, 0);
+    }
+
+    /**
+     * Shard of the dispatch, with its own pool, dispatcher and thread
+     */
+    private final class Shard implements Runnable {
+        private final int index;
+        private final CabPool cabPool;
+        private final Dispatcher dispatcher;
+        private final BlockingQueue<ShardMessage> queue;
+        private final Thread thread;
+        private final AtomicLong forwardedCount = new AtomicLong();
+        private final AtomicLong rejectedCount = new AtomicLong();
+        private volatile boolean stopped;
+
+        Shard(int index, MapLayout mapLayout, BoundaryDistanceTable boundaryTable, LandmarkIndex landmarks,
+              RoutingEngine engine, int cabs, int queueCapacity, long routeCacheBytes) {
+            this.index = index;
+            this.cabPool = new CabPool(cabs);
+            cabPool.spreadIdleCabs(mapLayout, partition.nodesOf(index));
+            cabPool.setLandmarks(landmarks, Double.POSITIVE_INFINITY);
+            RouteCache routeCache = new RouteCache(engine, routeCacheBytes);
+            LegDistanceCache legDistances = new LegDistanceCache((source, target) ->
+                    boundaryTable.crossesRegions(source, target) ? boundaryTable.distance(source, target)
+                            : RoutingEngine.distanceOf(routeCache.distancesFrom(source), target),
+                    legCacheCapacity);
+            this.dispatcher = new Dispatcher(cabPool, mapLayout,
+                    new RideQuoteService(cabPool, mapLayout, legDistances), null);
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+            this.thread = new Thread(this, "dispatch-shard-" + index);
+        }
+
+        /**
+         * Books the requests of the shard until the end of the stream, forwarding the ones
+         * it has no cab for.
+         */
+        @Override
+        public void run() {
+            try {
+                ShardMessage message;
+                while ((message = queue.take()) != ShardMessage.END) {
+                    if (dispatcher.book(message.request()) == null) {
+                        forward(message);
+                    }
+                }
+                dispatcher.finishAll();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                stopped = true;
+            }
+        }
+
+        /**
+         * Hands a request this shard could not book to the next shard, or rejects it once
+         * every shard has tried it.
+         *
+         * @param message request and the number of shards that tried it
+         */
+        private void forward(ShardMessage message) {
+            Shard next = shards.get((index + 1) % shards.size());
+            if (message.hops() + 1 < shards.size() && !next.stopped
+                    && next.queue.offer(new ShardMessage(message.request(), message.hops() + 1))) {
+                forwardedCount.incrementAndGet();
+            } else {
+                rejectedCount.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Constructs a new {@code ShardedDispatcher} with one shard per region.
+     *
+     * @param mapLayout     layout of the map with its node positions
+     * @param partition     regions of the map, one per shard
+     * @param cabsPerShard  number of cabs of every shard
+     * @param queueCapacity capacity of the request queue of every shard
+     */
+    public ShardedDispatcher(MapLayout mapLayout, RegionPartition partition, int cabsPerShard, int queueCapacity) {
+        this.partition = partition;
+        BoundaryDistanceTable boundaryTable = new BoundaryDistanceTable(mapLayout, partition);
+        LandmarkIndex landmarks = new LandmarkIndex(mapLayout, landmarkCount);
+        RoutingEngine engine = RoutingEngines.select(mapLayout);
+        long routeCacheBytes = RouteCache.defaultMemoryBudgetBytes() / partition.getRegionCount();
+        for (int region = 0; region < partition.getRegionCount(); region++) {
+            shards.add(new Shard(region, mapLayout, boundaryTable, landmarks, engine, cabsPerShard, queueCapacity,
+                    routeCacheBytes));
+        }
+    }
+
+    /**
+     * Starts the threads of the shards.
+     */
+    public void start() {
+        shards.forEach(shard -> shard.thread.start());
+    }
+
+    /**
+     * Hands a request to the shard of its source node, waiting while the queue of that shard
+     * is full. Requests from or to nodes outside the map are rejected.
+     *
+     * @param request ride request
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void submit(RideRequest request) throws InterruptedException {
+        int region = partition.regionOf(request.source());
+        if (region < 0 || partition.regionOf(request.destination()) < 0) {
+            shards.get(0).rejectedCount.incrementAndGet();
+            return;
+        }
+        shards.get(region).queue.put(new ShardMessage(request, 0));
+    }
+
+    /**
+     * Routes the requests of a queue to the shards until the end of the stream, then waits
+     * for the shards to finish.
+     *
+     * @param requests queue of requests, ended by {@link RideRequest#END_OF_STREAM}
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void routeAll(BlockingQueue<RideRequest> requests) throws InterruptedException {
+        RideRequest request;
+        while ((request = requests.take()) != RideRequest.END_OF_STREAM) {
+            submit(request);
+        }
+        finish();
+    }
+
+    /**
+     * Ends the stream of every shard and waits for the shards to finish their trips. Requests
+     * forwarded to a shard after it stopped are rejected.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void finish() throws InterruptedException {
+        for (Shard shard : shards) {
+            shard.queue.put(ShardMessage.END);
+        }
+        for (Shard shard : shards) {
+            shard.thread.join();
+        }
+        for (Shard shard : shards) {
+            shard.rejectedCount.addAndGet(shard.queue.size());
+            shard.queue.clear();
+        }
+    }
+
+    /**
+     * Getter method for the number of shards
+     *
+     * @return number of shards
+     */
+    public int getShardCount() {
+        return shards.size();
+    }
+
+    /**
+     * Getter method for the number of booked requests
+     *
+     * @return number of requests a cab was booked for, over all the shards
+     */
+    public long getBookedCount() {
+        return shards.stream().mapToLong(shard -> shard.dispatcher.getBookedCount()).sum();
+    }
+
+    /**
+     * Getter method for the number of rejected requests
+     *
+     * @return number of requests no shard booked a cab for
+     */
+    public long getRejectedCount() {
+        return shards.stream().mapToLong(shard -> shard.rejectedCount.get()).sum();
+    }
+
+    /**
+     * Getter method for the number of finished trips
+     *
+     * @return number of trips whose cab was dropped off, over all the shards
+     */
+    public long getCompletedCount() {
+        return shards.stream().mapToLong(shard -> shard.dispatcher.getCompletedCount()).sum();
+    }
+
+    /**
+     * Getter method for the number of forwarded requests
+     *
+     * @return number of times a shard handed a request to the next one
+     */
+    public long getForwardedCount() {
+        return shards.stream().mapToLong(shard -> shard.forwardedCount.get()).sum();
+    }
+}
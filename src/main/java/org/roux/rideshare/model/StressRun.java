@@ -0,0 +1,166 @@
+package org.roux.rideshare.model;
+
+import org.roux.rideshare.utils.LandmarkIndex;
+import org.roux.rideshare.utils.LegDistanceCache;
+import org.roux.rideshare.utils.RoutingEngine;
+import org.roux.rideshare.utils.RoutingEngines;
+
+import java.util.Random;
+
+/**
+ * The {@code StressRun} class loads a headless {@link Dispatcher} with random ride requests
+ * at a fixed rate, to find how many bookings a fleet of a given size sustains on a map. The
+ * requests are generated on the thread running the stress run and dispatched on the same
+ * thread, paced by the wall clock; when dispatching falls behind the rate, the requests due
+ * but not yet generated are reported as the backlog. The virtual clock of the dispatcher runs
+ * faster than the wall clock by the time scale, so trips end, and cabs come back, sooner.
+ * Legs are routed point to point by the engine of the map, as caching the distances from
+ * every source of a large map would not fit in memory.
+ *
+ * <p>The progress of the run is read from any thread with {@link #sample()}.
+ *
+ * @author Venkateshprasad, Prajwal, Gaurav
+ * @version 1.0
+ */
+public class StressRun implements Runnable {
+    private static final long TICK_MILLIS = 5;
+    private static final int MAX_BURST = 1024;
+    private static final int LEG_CACHE_CAPACITY = 1 << 16;
+    private static final int LANDMARK_COUNT = 4;
+    private final Dispatcher dispatcher;
+    private final int fleetSize;
+    private final double requestsPerSecond;
+    private final double shareFraction;
+    private final double timeScale;
+    private final int[] nodes;
+    private final Random random = new Random();
+    private volatile boolean running = true;
+    private volatile long offeredCount;
+    private volatile long backlog;
+
+    /**
+     * Record to maintain the progress of a stress run at one moment
+     *
+     * @param nanos             time of the sample, from {@link System#nanoTime()}
+     * @param offeredCount      number of requests generated so far
+     * @param bookedCount       number of requests a cab was booked for
+     * @param rejectedCount     number of requests no cab was booked for
+     * @param completedCount    number of finished trips
+     * @param busyCabCount      number of cabs with passengers on board
+     * @param fleetSize         number of cabs of the fleet
+     * @param backlog           number of requests due at the rate but not generated yet
+     * @param routingLatencies  snapshot of the routing latency histogram of the dispatcher
+     * @param matchingLatencies snapshot of the matching latency histogram of the dispatcher
+     */
+    public record Sample(long nanos, long offeredCount, long bookedCount, long rejectedCount, long completedCount,
+                         int busyCabCount, int fleetSize, long backlog, long[] routingLatencies,
+                         long[] matchingLatencies) {
+    }
+
+    /**
+     * Constructs a new {@code StressRun} over a map whose nodes are laid out. The cabs are
+     * spread evenly over the map and the shared rides are pruned with landmarks, as in the
+     * trace replay.
+     *
+     * @param mapLayout         layout of the map with its node positions
+     * @param fleetSize         number of cabs
+     * @param requestsPerSecond rate of the requests, per second of wall clock
+     * @param shareFraction     fraction of the requests sharing their ride
+     * @param timeScale         seconds of virtual clock per second of wall clock
+     * @throws IllegalArgumentException if the map has fewer than two nodes, or a parameter is not positive
+     */
+    public StressRun(MapLayout mapLayout, int fleetSize, double requestsPerSecond, double shareFraction,
+                     double timeScale) {
+        this.nodes = mapLayout.getVerticesAdjList().keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+        if (nodes.length < 2 || fleetSize <= 0 || requestsPerSecond <= 0 || timeScale <= 0) {
+            throw new IllegalArgumentException("Cannot stress " + fleetSize + " cabs at " + requestsPerSecond
+                    + " requests/s and time scale " + timeScale + " on " + nodes.length + " nodes");
+        }
+        this.fleetSize = fleetSize;
+        this.requestsPerSecond = requestsPerSecond;
+        this.shareFraction = shareFraction;
+        this.timeScale = timeScale;
+        CabPool cabPool = new CabPool(fleetSize);
+        cabPool.spreadIdleCabs(mapLayout);
+        cabPool.setLandmarks(new LandmarkIndex(mapLayout, LANDMARK_COUNT), Double.POSITIVE_INFINITY);
+        RoutingEngine engine = RoutingEngines.select(mapLayout);
+        RideQuoteService quoteService = new RideQuoteService(cabPool, mapLayout,
+                new LegDistanceCache(engine::distance, LEG_CACHE_CAPACITY));
+        this.dispatcher = new Dispatcher(cabPool, mapLayout, quoteService, null);
+    }
+
+    /**
+     * Generates and dispatches requests at the rate until the run is stopped or its thread
+     * is interrupted, then finishes all the remaining trips.
+     */
+    @Override
+    public void run() {
+        long start = System.nanoTime();
+        long generated = 0;
+        while (running && !Thread.currentThread().isInterrupted()) {
+            double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+            long due = (long) (elapsedSeconds * requestsPerSecond);
+            long clockMillis = (long) (elapsedSeconds * timeScale * 1000);
+            if (generated >= due) {
+                dispatcher.advanceClock(clockMillis);
+                backlog = 0;
+                try {
+                    Thread.sleep(TICK_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                continue;
+            }
+            long burstEnd = Math.min(due, generated + MAX_BURST);
+            while (generated < burstEnd) {
+                dispatcher.dispatch(nextRequest(clockMillis));
+                offeredCount = ++generated;
+            }
+            backlog = due - generated;
+        }
+        dispatcher.finishAll();
+    }
+
+    /**
+     * Asks the run to stop after its current burst of requests.
+     */
+    public void stop() {
+        running = false;
+    }
+
+    /**
+     * Generates a request between two distinct random nodes of the map.
+     *
+     * @param clockMillis time of the request on the virtual clock
+     * @return new ride request
+     */
+    private RideRequest nextRequest(long clockMillis) {
+        int source = nodes[random.nextInt(nodes.length)];
+        int destination = nodes[random.nextInt(nodes.length - 1)];
+        if (destination == source) {
+            destination = nodes[nodes.length - 1];
+        }
+        return new RideRequest(clockMillis, source, destination, random.nextDouble() < shareFraction);
+    }
+
+    /**
+     * Takes a sample of the progress of the run.
+     *
+     * @return counters and latency histograms of the run so far
+     */
+    public Sample sample() {
+        return new Sample(System.nanoTime(), offeredCount, dispatcher.getBookedCount(),
+                dispatcher.getRejectedCount(), dispatcher.getCompletedCount(), dispatcher.getBusyCabCount(),
+                fleetSize, backlog, dispatcher.getRoutingLatencies().snapshot(),
+                dispatcher.getMatchingLatencies().snapshot());
+    }
+
+    /**
+     * Getter method for requestsPerSecond attribute
+     *
+     * @return rate of the requests, per second of wall clock
+     */
+    public double getRequestsPerSecond() {
+        return requestsPerSecond;
+    }
+}
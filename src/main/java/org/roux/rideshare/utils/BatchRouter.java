@@ -0,0 +1,235 @@
+package org.roux.rideshare.utils;
+
+import org.roux.rideshare.model.Lane;
+import org.roux.rideshare.model.MapLayout;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * The {@code BatchRouter} class computes the road distances of many (source, destination)
+ * pairs at once. The pairs are grouped by source, so one search tree serves every destination
+ * of a source, and each search stops once all the destinations of its group are settled. The
+ * groups are searched in parallel on the common fork-join pool.
+ *
+ * <p>The lanes are copied into compressed sparse rows when the router is built, so searches
+ * never touch the maps of the {@link MapLayout} and the router can be shared by threads. Each
+ * thread searches with its own workspace of arrays, kept between batches; a search clears
+ * only the entries it touched, by stamping them with the number of the search.
+ *
+ * @author Venkateshprasad, Prajwal, Gaurav
+ * @version 1.0
+ */
+public class BatchRouter {
+    private final int[] nodeIds;
+    private final int[] indexOf;
+    private final int[] offsets;
+    private final int[] targets;
+    private final double[] weights;
+    private final ThreadLocal<Workspace> workspaces;
+
+    /**
+     * Working arrays of the searches of one thread
+     */
+    private static final class Workspace {
+        private final double[] distances;
+        private final int[] reachedStamps;
+        private final int[] settledStamps;
+        private final int[] wantedStamps;
+        private final MinHeap heap;
+        private int stamp;
+
+        Workspace(int nodeCount) {
+            this.distances = new double[nodeCount];
+            this.reachedStamps = new int[nodeCount];
+            this.settledStamps = new int[nodeCount];
+            this.wantedStamps = new int[nodeCount];
+            this.heap = new MinHeap(nodeCount);
+        }
+    }
+
+    /**
+     * Constructs a new {@code BatchRouter} over the lanes of a map.
+     *
+     * @param mapLayout graph layout of the map
+     */
+    public BatchRouter(MapLayout mapLayout) {
+        Map<Integer, List<Lane>> adjList = mapLayout.getVerticesAdjList();
+        this.nodeIds = IntStream.concat(adjList.keySet().stream().mapToInt(Integer::intValue),
+                        adjList.values().stream().flatMap(List::stream).mapToInt(Lane::getTarget))
+                .filter(node -> node >= 0).distinct().sorted().toArray();
+        int maxNode = nodeIds.length == 0 ? 0 : nodeIds[nodeIds.length - 1];
+        this.indexOf = new int[maxNode + 1];
+        Arrays.fill(indexOf, -1);
+        for (int i = 0; i < nodeIds.length; i++) {
+            indexOf[nodeIds[i]] = i;
+        }
+        int laneCount = adjList.entrySet().stream().filter(entry -> entry.getKey() >= 0)
+                .mapToInt(entry -> (int) entry.getValue().stream().filter(lane -> lane.getTarget() >= 0).count())
+                .sum();
+        this.offsets = new int[nodeIds.length + 1];
+        this.targets = new int[laneCount];
+        this.weights = new double[laneCount];
+        int edge = 0;
+        for (int i = 0; i < nodeIds.length; i++) {
+            offsets[i] = edge;
+            for (Lane lane : adjList.getOrDefault(nodeIds[i], List.of())) {
+                if (lane.getTarget() >= 0) {
+                    targets[edge] = indexOf[lane.getTarget()];
+                    weights[edge++] = lane.getWeight();
+                }
+            }
+        }
+        offsets[nodeIds.length] = edge;
+        int nodeCount = nodeIds.length;
+        this.workspaces = ThreadLocal.withInitial(() -> new Workspace(nodeCount));
+    }
+
+    /**
+     * Computes the road distance of every (source, destination) pair.
+     *
+     * @param sources      source node of every pair
+     * @param destinations destination node of every pair
+     * @return distance of every pair, {@link Double#POSITIVE_INFINITY} if unreachable or a node is unknown
+     * @throws IllegalArgumentException if the arrays have different lengths
+     */
+    public double[] route(int[] sources, int[] destinations) {
+        if (sources.length != destinations.length) {
+            throw new IllegalArgumentException("Got " + sources.length + " sources for "
+                    + destinations.length + " destinations");
+        }
+        double[] results = new double[sources.length];
+        long[] pairsBySource = new long[sources.length];
+        for (int pair = 0; pair < sources.length; pair++) {
+            pairsBySource[pair] = (long) sources[pair] << 32 | pair;
+        }
+        Arrays.sort(pairsBySource);
+        int[] groupStarts = IntStream.rangeClosed(0, pairsBySource.length)
+                .filter(i -> i == 0 || i == pairsBySource.length
+                        || pairsBySource[i] >>> 32 != pairsBySource[i - 1] >>> 32)
+                .toArray();
+        IntStream.range(0, groupStarts.length - 1).parallel()
+                .forEach(group -> routeGroup(pairsBySource, groupStarts[group], groupStarts[group + 1],
+                        destinations, results));
+        return results;
+    }
+
+    /**
+     * Computes the road distances from some sources to every node.
+     *
+     * @param sources source nodes
+     * @return for every source, the distance to every node indexed by node id,
+     * {@link Double#POSITIVE_INFINITY} for unreachable nodes and ids that are not nodes
+     */
+    public double[][] distancesFrom(int[] sources) {
+        return Arrays.stream(sources).parallel().mapToObj(source -> {
+            double[] row = new double[indexOf.length];
+            Arrays.fill(row, Double.POSITIVE_INFINITY);
+            Workspace workspace = workspaces.get();
+            search(workspace, index(source), 0);
+            for (int i = 0; i < nodeIds.length; i++) {
+                if (workspace.settledStamps[i] == workspace.stamp) {
+                    row[nodeIds[i]] = workspace.distances[i];
+                }
+            }
+            if (source >= 0 && source < row.length) {
+                row[source] = 0;
+            }
+            return row;
+        }).toArray(double[][]::new);
+    }
+
+    /**
+     * Routes the pairs of one source with a single search on the workspace of the thread.
+     *
+     * @param pairsBySource pairs sorted by source, as source in the high bits and pair index in the low bits
+     * @param from          first pair of the group
+     * @param to            end of the group, exclusive
+     * @param destinations  destination node of every pair
+     * @param results       distance of every pair, written for the pairs of the group
+     */
+    private void routeGroup(long[] pairsBySource, int from, int to, int[] destinations, double[] results) {
+        Workspace workspace = workspaces.get();
+        int source = (int) (pairsBySource[from] >> 32);
+        int wanted = 0;
+        int nextStamp = workspace.stamp + 1;
+        for (int i = from; i < to; i++) {
+            int target = index(destinations[(int) pairsBySource[i]]);
+            if (target >= 0 && workspace.wantedStamps[target] != nextStamp) {
+                workspace.wantedStamps[target] = nextStamp;
+                wanted++;
+            }
+        }
+        search(workspace, wanted == 0 ? -1 : index(source), wanted);
+        for (int i = from; i < to; i++) {
+            int pair = (int) pairsBySource[i];
+            int target = index(destinations[pair]);
+            results[pair] = target >= 0 && workspace.settledStamps[target] == workspace.stamp
+                    ? workspace.distances[target]
+                    : source == destinations[pair] ? 0 : Double.POSITIVE_INFINITY;
+        }
+    }
+
+    /**
+     * Runs Dijkstra's algorithm from a node index on a workspace, under a new stamp. The
+     * distances are valid for the node indices settled under that stamp.
+     *
+     * @param workspace workspace of the thread
+     * @param source    index of the source node, -1 if unknown
+     * @param wanted    number of node indices stamped as wanted, after which the search stops,
+     *                  0 to settle every reachable node
+     */
+    private void search(Workspace workspace, int source, int wanted) {
+        int stamp = ++workspace.stamp;
+        if (source < 0) {
+            return;
+        }
+        MinHeap heap = workspace.heap;
+        heap.clear();
+        workspace.distances[source] = 0;
+        workspace.reachedStamps[source] = stamp;
+        heap.push(source, 0);
+        while (!heap.isEmpty()) {
+            double distance = heap.peekKey();
+            int node = heap.pop();
+            if (workspace.settledStamps[node] == stamp) {
+                continue;
+            }
+            workspace.settledStamps[node] = stamp;
+            if (workspace.wantedStamps[node] == stamp && --wanted == 0) {
+                return;
+            }
+            for (int edge = offsets[node]; edge < offsets[node + 1]; edge++) {
+                int next = targets[edge];
+                double candidate = distance + weights[edge];
+                if (workspace.settledStamps[next] != stamp
+                        && (workspace.reachedStamps[next] != stamp || candidate < workspace.distances[next])) {
+                    workspace.distances[next] = candidate;
+                    workspace.reachedStamps[next] = stamp;
+                    heap.push(next, candidate);
+                }
+            }
+        }
+    }
+
+    /**
+     * Maps a node id to its index in the arrays of the router.
+     *
+     * @param node node id
+     * @return index of the node, -1 if the node is unknown
+     */
+    private int index(int node) {
+        return node >= 0 && node < indexOf.length ? indexOf[node] : -1;
+    }
+
+    /**
+     * Getter method for the number of nodes
+     *
+     * @return number of nodes of the map
+     */
+    public int getNodeCount() {
+        return nodeIds.length;
+    }
+}
@@ -0,0 +1,59 @@
+package org.roux.rideshare.utils;
+
+import org.roux.rideshare.model.MapLayout;
+
+/**
+ * The {@code BatchRoutingProvider} class provides the {@link BatchRouter} as a
+ * {@link RoutingEngine}. Its compressed lanes and per-thread workspaces make searches several
+ * times faster than over the maps of the layout, and many-to-many queries share one search
+ * per source across the cores.
+ *
+ * @author Venkateshprasad, Prajwal, Gaurav
+ * @version 1.0
+ */
+public class BatchRoutingProvider implements RoutingEngineProvider {
+    /**
+     * Name of the engine
+     */
+    public static final String NAME = "batch";
+    private static final int MINIMUM_NODE_COUNT = 500;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public int getMinimumNodeCount() {
+        return MINIMUM_NODE_COUNT;
+    }
+
+    @Override
+    public long estimateMemoryBytes(int nodeCount, int laneCount) {
+        long lanes = (long) laneCount * (Integer.BYTES + Double.BYTES);
+        long nodes = (long) nodeCount * 3 * Integer.BYTES;
+        long workspace = (long) nodeCount * (Double.BYTES + 3 * Integer.BYTES + Integer.BYTES + Double.BYTES);
+        return lanes + nodes + workspace * Runtime.getRuntime().availableProcessors();
+    }
+
+    @Override
+    public RoutingEngine create(MapLayout mapLayout) {
+        BatchRouter batchRouter = new BatchRouter(mapLayout);
+        return new RoutingEngine() {
+            @Override
+            public double[] distancesFrom(int source) {
+                return batchRouter.distancesFrom(new int[]{source})[0];
+            }
+
+            @Override
+            public double distance(int source, int target) {
+                return batchRouter.route(new int[]{source}, new int[]{target})[0];
+            }
+
+            @Override
+            public double[] distances(int[] sources, int[] targets) {
+                return batchRouter.route(sources, targets);
+            }
+        };
+    }
+}
@@ -0,0 +1,110 @@
+package org.roux.rideshare.utils;
+
+import org.roux.rideshare.model.Lane;
+import org.roux.rideshare.model.MapLayout;
+import org.roux.rideshare.model.RegionPartition;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@code BoundaryDistanceTable} class precomputes the road distances between the boundary
+ * nodes of the regions of a {@link RegionPartition} and every node of the map. A boundary node
+ * has a lane to another region, so every route from a node to another region leaves its
+ * region through one of them; the distance between nodes of different regions is the minimum,
+ * over the boundary nodes of one of the two regions, of the distances to both. Rows are dense
+ * arrays indexed by node id, read only once built, so shards on any thread can share a table.
+ *
+ * <p>The lanes of the map go both ways, so a row holds the distances both to and from its
+ * boundary node.
+ *
+ * @author Venkateshprasad, Prajwal, Gaurav
+ * @version 1.0
+ */
+public class BoundaryDistanceTable {
+    private final RegionPartition partition;
+    private final int[][] boundaryRows;
+    private final double[][] rows;
+
+    /**
+     * Constructs a new {@code BoundaryDistanceTable}, searching the map once from every boundary
+     * node. The searches run in parallel on a {@link BatchRouter}.
+     *
+     * @param mapLayout graph layout of the map
+     * @param partition regions of the map
+     */
+    public BoundaryDistanceTable(MapLayout mapLayout, RegionPartition partition) {
+        this.partition = partition;
+        Map<Integer, List<Lane>> adjList = mapLayout.getVerticesAdjList();
+        List<Integer> boundaryNodes = new ArrayList<>();
+        List<List<Integer>> boundaryOfRegion = new ArrayList<>();
+        for (int region = 0; region < partition.getRegionCount(); region++) {
+            boundaryOfRegion.add(new ArrayList<>());
+        }
+        adjList.keySet().stream().sorted().forEach(node -> {
+            int region = partition.regionOf(node);
+            if (adjList.get(node).stream().anyMatch(lane -> partition.regionOf(lane.getTarget()) != region)) {
+                boundaryOfRegion.get(region).add(boundaryNodes.size());
+                boundaryNodes.add(node);
+            }
+        });
+        this.boundaryRows = boundaryOfRegion.stream()
+                .map(rowIds -> rowIds.stream().mapToInt(Integer::intValue).toArray())
+                .toArray(int[][]::new);
+
+        this.rows = new BatchRouter(mapLayout).distancesFrom(
+                boundaryNodes.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    /**
+     * Computes the road distance between nodes of different regions through the boundary of
+     * the region of the source. For nodes of the same region, the shortest route may stay
+     * inside it, and the result is only an upper bound.
+     *
+     * @param source source node
+     * @param target target node
+     * @return road distance, {@link Double#POSITIVE_INFINITY} if target is unreachable or a node is unknown
+     */
+    public double distance(int source, int target) {
+        int region = partition.regionOf(source);
+        if (region < 0 || partition.regionOf(target) < 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double best = Double.POSITIVE_INFINITY;
+        for (int row : boundaryRows[region]) {
+            double[] distances = rows[row];
+            best = Math.min(best, distances[source] + distances[target]);
+        }
+        return best;
+    }
+
+    /**
+     * Checks whether two nodes are in different regions, where the table is exact.
+     *
+     * @param source source node
+     * @param target target node
+     * @return true if the nodes are in different regions, else false
+     */
+    public boolean crossesRegions(int source, int target) {
+        return partition.regionOf(source) != partition.regionOf(target);
+    }
+
+    /**
+     * Getter method for partition attribute
+     *
+     * @return regions of the map
+     */
+    public RegionPartition getPartition() {
+        return partition;
+    }
+
+    /**
+     * Getter method for the number of boundary nodes
+     *
+     * @return number of rows of the table
+     */
+    public int getBoundaryNodeCount() {
+        return rows.length;
+    }
+}
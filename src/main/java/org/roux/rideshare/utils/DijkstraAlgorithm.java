@@ -54,4 +54,50 @@ public class DijkstraAlgorithm {
 
         return distancesFromSource;
     }
+
+    /**
+     * Visitor of the nodes settled by an incremental search, in order of distance
+     */
+    public interface SettledNodeVisitor {
+        /**
+         * Receives a node once its shortest distance from the source is known.
+         *
+         * @param node     settled node
+         * @param distance shortest distance of the node from the source
+         * @return true to go on with the search, false to stop it
+         */
+        boolean visit(int node, double distance);
+    }
+
+    /**
+     * Runs Dijkstra's algorithm from a source node, handing every settled node to a visitor
+     * until the visitor stops the search. Nodes are visited in order of distance, so a search
+     * looking for the closest node of some kind stops as soon as it settles one.
+     *
+     * @param source  source node of the graph
+     * @param visitor {@link SettledNodeVisitor} receiving the settled nodes
+     */
+    public void searchFrom(int source, SettledNodeVisitor visitor) {
+        Set<Integer> settledNodes = new HashSet<>();
+        PriorityQueue<Lane> priorityQueueNodes = new PriorityQueue<>(Comparator
+                .comparingDouble(Lane::getWeight));
+        priorityQueueNodes.add(new Lane(source, 0));
+
+        while (!priorityQueueNodes.isEmpty()) {
+            Lane currentNode = priorityQueueNodes.poll();
+            if (!settledNodes.add(currentNode.getTarget())) continue;
+
+            if (!visitor.visit(currentNode.getTarget(), currentNode.getWeight())) {
+                return;
+            }
+            List<Lane> adjacentLanes = mapLayout.getVerticesAdjList()
+                    .getOrDefault(currentNode.getTarget(), Collections.emptyList());
+            for (Lane lane : adjacentLanes) {
+                if (!settledNodes.contains(lane.getTarget())) {
+                    priorityQueueNodes.add(new Lane(lane.getTarget(),
+                            currentNode.getWeight() + lane.getWeight()));
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,78 @@
+package org.roux.rideshare.utils;
+
+import org.roux.rideshare.model.MapLayout;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The {@code DijkstraRoutingProvider} class provides the {@link DijkstraAlgorithm} as a
+ * {@link RoutingEngine}. It keeps nothing besides the map, so it is the engine of small maps
+ * and the fallback when memory is short.
+ *
+ * @author Venkateshprasad, Prajwal, Gaurav
+ * @version 1.0
+ */
+public class DijkstraRoutingProvider implements RoutingEngineProvider {
+    /**
+     * Name of the engine
+     */
+    public static final String NAME = "dijkstra";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public int getMinimumNodeCount() {
+        return 0;
+    }
+
+    @Override
+    public long estimateMemoryBytes(int nodeCount, int laneCount) {
+        return 0;
+    }
+
+    @Override
+    public RoutingEngine create(MapLayout mapLayout) {
+        DijkstraAlgorithm dAlgo = new DijkstraAlgorithm(mapLayout);
+        int rowLength = RoutingEngines.maxNodeId(mapLayout) + 1;
+        LongAdder settledNodes = new LongAdder();
+        return new RoutingEngine() {
+            @Override
+            public double[] distancesFrom(int source) {
+                double[] row = new double[Math.max(rowLength, source + 1)];
+                Arrays.fill(row, Double.POSITIVE_INFINITY);
+                dAlgo.searchFrom(source, (node, distance) -> {
+                    if (node >= 0 && node < row.length) {
+                        row[node] = distance;
+                    }
+                    return true;
+                });
+                return row;
+            }
+
+            @Override
+            public double distance(int source, int target) {
+                double[] found = {Double.POSITIVE_INFINITY};
+                long[] settled = new long[1];
+                dAlgo.searchFrom(source, (node, distance) -> {
+                    settled[0]++;
+                    if (node == target) {
+                        found[0] = distance;
+                        return false;
+                    }
+                    return true;
+                });
+                settledNodes.add(settled[0]);
+                return found[0];
+            }
+
+            @Override
+            public long getSettledNodeCount() {
+                return settledNodes.sum();
+            }
+        };
+    }
+}
@@ -0,0 +1,156 @@
+package org.roux.rideshare.utils;
+
+import org.roux.rideshare.model.Lane;
+import org.roux.rideshare.model.MapLayout;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@code EdgeIndex} class numbers the lanes of a {@link MapLayout} in compressed sparse
+ * row order and finds the id of the lane between two nodes in constant time. Lane ids are
+ * looked up in an open-addressing hash table keyed by the (source, target) pair packed in a
+ * long, so no boxing happens on the lookup path.
+ *
+ * @author Venkateshprasad, Prajwal, Gaurav
+ * @version 1.0
+ */
+public class EdgeIndex {
+    private static final long EMPTY = Long.MIN_VALUE;
+    private final int[] sources;
+    private final int[] targets;
+    private final double[] weights;
+    private final long[] keys;
+    private final int[] values;
+    private final int mask;
+
+    /**
+     * Constructs a new {@code EdgeIndex} over the lanes of the specified {@link MapLayout}.
+     * If two lanes join the same pair of nodes, the lighter one is indexed.
+     *
+     * @param mapLayout graph layout of the map
+     */
+    public EdgeIndex(MapLayout mapLayout) {
+        Map<Integer, List<Lane>> adjList = mapLayout.getVerticesAdjList();
+        int[] nodeIds = adjList.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+        int laneCount = adjList.values().stream().mapToInt(List::size).sum();
+        this.sources = new int[laneCount];
+        this.targets = new int[laneCount];
+        this.weights = new double[laneCount];
+        int capacity = Integer.highestOneBit(Math.max(2, laneCount * 2 - 1)) << 1;
+        this.keys = new long[capacity];
+        this.values = new int[capacity];
+        this.mask = capacity - 1;
+        Arrays.fill(keys, EMPTY);
+
+        int edge = 0;
+        for (int source : nodeIds) {
+            for (Lane lane : adjList.get(source)) {
+                sources[edge] = source;
+                targets[edge] = lane.getTarget();
+                weights[edge] = lane.getWeight();
+                int existing = edgeId(source, lane.getTarget());
+                if (existing < 0 || weights[existing] > lane.getWeight()) {
+                    put(key(source, lane.getTarget()), edge);
+                }
+                edge++;
+            }
+        }
+    }
+
+    /**
+     * Finds the id of the lane from one node to another.
+     *
+     * @param source source node of the lane
+     * @param target target node of the lane
+     * @return id of the lane, -1 if the nodes are not joined by a lane
+     */
+    public int edgeId(int source, int target) {
+        long key = key(source, target);
+        for (int slot = hash(key); ; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+            if (keys[slot] == EMPTY) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Stores a lane id under its key, replacing the id stored before if any.
+     *
+     * @param key   packed (source, target) pair
+     * @param value id of the lane
+     */
+    private void put(long key, int value) {
+        int slot = hash(key);
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+    }
+
+    /**
+     * Packs a (source, target) pair in a long.
+     *
+     * @param source source node
+     * @param target target node
+     * @return packed pair
+     */
+    private static long key(int source, int target) {
+        return ((long) source << 32) | (target & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Spreads the bits of a key over the slots of the table.
+     *
+     * @param key packed (source, target) pair
+     * @return slot of the key
+     */
+    private int hash(long key) {
+        long mixed = key * 0x9E3779B97F4A7C15L;
+        return (int) (mixed ^ (mixed >>> 32)) & mask;
+    }
+
+    /**
+     * Getter method for the source node of a lane
+     *
+     * @param edge id of the lane
+     * @return source node of the lane
+     */
+    public int getSource(int edge) {
+        return sources[edge];
+    }
+
+    /**
+     * Getter method for the target node of a lane
+     *
+     * @param edge id of the lane
+     * @return target node of the lane
+     */
+    public int getTarget(int edge) {
+        return targets[edge];
+    }
+
+    /**
+     * Getter method for the weight of a lane
+     *
+     * @param edge id of the lane
+     * @return weight of the lane
+     */
+    public double getWeight(int edge) {
+        return weights[edge];
+    }
+
+    /**
+     * Getter method for the number of lanes
+     *
+     * @return number of indexed lanes
+     */
+    public int size() {
+        return sources.length;
+    }
+}
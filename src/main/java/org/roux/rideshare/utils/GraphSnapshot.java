@@ -0,0 +1,304 @@
+package org.roux.rideshare.utils;
+
+import org.roux.rideshare.model.Lane;
+import org.roux.rideshare.model.MapLayout;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * The {@code GraphSnapshot} class saves a built {@link MapLayout}, with its node positions,
+ * together with the warm contents of a {@link RouteCache} and the tables of a
+ * {@link LandmarkIndex} to a versioned binary file, and restores them from it. Restoring
+ * memory-maps the file and bulk-copies flat arrays, so a restart skips graph generation and
+ * landmark preprocessing, and the first bookings are served from the cache right away.
+ *
+ * <p>Layout, all values big-endian: magic, version, node count, lane count, node ids,
+ * lane offsets (node count + 1), lane targets, lane weights, the x and y coordinates of every
+ * node ({@link Double#NaN} for nodes without a position), cached source count, cached source
+ * ids and, for each cached source, the distance to every node in node id order
+ * ({@link Double#NaN} for unreachable nodes), landmark count, landmark ids and, for each
+ * landmark, the float distances from it and to it for every node in node id order.
+ *
+ * @author Venkateshprasad, Prajwal, Gaurav
+ * @version 1.0
+ */
+public class GraphSnapshot {
+    private static final int MAGIC = 0x52534753; // "RSGS"
+    private static final int VERSION = 2;
+
+    /**
+     * Record to maintain what a snapshot restored besides the graph and the cached routes
+     *
+     * @param landmarks landmark index rebuilt from the saved tables, null if none were saved
+     */
+    public record Restored(LandmarkIndex landmarks) {
+    }
+
+    /**
+     * Constructor is private as the class only provides static methods.
+     */
+    private GraphSnapshot() {
+    }
+
+    /**
+     * Saves the graph of the layout, its node positions, the cached routes and the landmark
+     * tables to a snapshot file. The file is written next to the target and moved in place,
+     * so a crash never leaves a torn snapshot.
+     *
+     * @param snapshotPath path of the snapshot file
+     * @param mapLayout    built layout of the map
+     * @param routeCache   cache whose routes are saved
+     * @param landmarks    landmark index of the map, null to save no landmark tables
+     * @throws IOException if the file cannot be written
+     */
+    public static void save(Path snapshotPath, MapLayout mapLayout, RouteCache routeCache, LandmarkIndex landmarks)
+            throws IOException {
+        Map<Integer, List<Lane>> adjList = mapLayout.getVerticesAdjList();
+        int[] nodeIds = adjList.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+        int laneCount = adjList.values().stream().mapToInt(List::size).sum();
+        Map<Integer, Map<Integer, Double>> cachedRoutes = new TreeMap<>(routeCache.getDistancesBySource());
+        LandmarkIndex.Tables tables = landmarks == null
+                ? new LandmarkIndex.Tables(new int[0], new float[0][], new float[0][]) : landmarks.getTables();
+
+        long size = 4L * Integer.BYTES
+                + (long) Integer.BYTES * (2L * nodeIds.length + 1 + laneCount)
+                + (long) Double.BYTES * laneCount
+                + 2L * Double.BYTES * nodeIds.length
+                + Integer.BYTES
+                + (long) cachedRoutes.size() * (Integer.BYTES + (long) Double.BYTES * nodeIds.length)
+                + Integer.BYTES
+                + (long) tables.landmarks().length * (Integer.BYTES + 2L * Float.BYTES * nodeIds.length);
+        Path temporaryPath = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporaryPath, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(nodeIds.length).putInt(laneCount);
+            for (int nodeId : nodeIds) {
+                buffer.putInt(nodeId);
+            }
+            int offset = 0;
+            buffer.putInt(offset);
+            for (int nodeId : nodeIds) {
+                offset += adjList.get(nodeId).size();
+                buffer.putInt(offset);
+            }
+            for (int nodeId : nodeIds) {
+                for (Lane lane : adjList.get(nodeId)) {
+                    buffer.putInt(lane.getTarget());
+                }
+            }
+            for (int nodeId : nodeIds) {
+                for (Lane lane : adjList.get(nodeId)) {
+                    buffer.putDouble(lane.getWeight());
+                }
+            }
+            for (int nodeId : nodeIds) {
+                boolean placed = mapLayout.hasNodePosition(nodeId);
+                buffer.putDouble(placed ? mapLayout.getNodeX(nodeId) : Double.NaN);
+                buffer.putDouble(placed ? mapLayout.getNodeY(nodeId) : Double.NaN);
+            }
+            buffer.putInt(cachedRoutes.size());
+            cachedRoutes.keySet().forEach(buffer::putInt);
+            for (Map<Integer, Double> distances : cachedRoutes.values()) {
+                for (int nodeId : nodeIds) {
+                    buffer.putDouble(distances.getOrDefault(nodeId, Double.NaN));
+                }
+            }
+            buffer.putInt(tables.landmarks().length);
+            for (int landmark : tables.landmarks()) {
+                buffer.putInt(landmark);
+            }
+            for (int l = 0; l < tables.landmarks().length; l++) {
+                buffer.asFloatBuffer().put(tables.fromLandmark()[l]).put(tables.toLandmark()[l]);
+                buffer.position(buffer.position() + 2 * Float.BYTES * nodeIds.length);
+            }
+            buffer.force();
+        }
+        Files.move(temporaryPath, snapshotPath, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Restores a snapshot into an empty layout and cache. Nothing is restored if the file
+     * is missing, truncated, written by another version or not a snapshot at all, or if its
+     * counts and lane offsets are inconsistent, in which case the caller builds the graph
+     * from scratch. Every count is checked against the bytes left in the file before an
+     * array is allocated for it, and the node ids have to be ascending and every lane has to
+     * end at one of them. Landmark tables that do not match the graph are dropped, and
+     * the caller computes them again.
+     *
+     * @param snapshotPath path of the snapshot file
+     * @param mapLayout    empty layout receiving the graph and its node positions
+     * @param routeCache   cache receiving the saved routes
+     * @return what was restored besides the graph and the routes, null if nothing was restored
+     * @throws IOException if the file cannot be read
+     */
+    public static Restored load(Path snapshotPath, MapLayout mapLayout, RouteCache routeCache) throws IOException {
+        if (!Files.isRegularFile(snapshotPath)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(snapshotPath, StandardOpenOption.READ)) {
+            if (channel.size() < 4L * Integer.BYTES) {
+                return null;
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                return null;
+            }
+            int nodeCount;
+            int[] nodeIds;
+            int[] laneOffsets;
+            int[] laneTargets;
+            double[] laneWeights;
+            double[] positions;
+            int cachedCount;
+            int[] cachedSources;
+            double[] cachedDistances;
+            int[] landmarkIds;
+            float[][] fromLandmark;
+            float[][] toLandmark;
+            try {
+                nodeCount = buffer.getInt();
+                int laneCount = buffer.getInt();
+                if (!fits(buffer, 2L * nodeCount + 1 + laneCount, Integer.BYTES,
+                        ((long) laneCount + 2L * nodeCount) * Double.BYTES) || nodeCount < 0 || laneCount < 0) {
+                    return null;
+                }
+                nodeIds = readInts(buffer, nodeCount);
+                laneOffsets = readInts(buffer, nodeCount + 1);
+                laneTargets = readInts(buffer, laneCount);
+                laneWeights = readDoubles(buffer, laneCount);
+                if (laneOffsets[0] != 0 || laneOffsets[nodeCount] != laneCount) {
+                    return null;
+                }
+                for (int i = 0; i < nodeCount; i++) {
+                    if (laneOffsets[i] > laneOffsets[i + 1] || nodeIds[i] < 0
+                            || i > 0 && nodeIds[i - 1] >= nodeIds[i]) {
+                        return null;
+                    }
+                }
+                for (int target : laneTargets) {
+                    if (Arrays.binarySearch(nodeIds, target) < 0) {
+                        return null;
+                    }
+                }
+                positions = readDoubles(buffer, 2 * nodeCount);
+                cachedCount = buffer.getInt();
+                if (cachedCount < 0 || !fits(buffer, cachedCount, Integer.BYTES,
+                        Math.multiplyExact((long) cachedCount * nodeCount, Double.BYTES))) {
+                    return null;
+                }
+                cachedSources = readInts(buffer, cachedCount);
+                cachedDistances = readDoubles(buffer, Math.multiplyExact(cachedCount, nodeCount));
+                int landmarkCount = buffer.getInt();
+                if (landmarkCount < 0 || !fits(buffer, landmarkCount, Integer.BYTES,
+                        Math.multiplyExact(2L * landmarkCount * nodeCount, Float.BYTES))) {
+                    return null;
+                }
+                landmarkIds = readInts(buffer, landmarkCount);
+                fromLandmark = new float[landmarkCount][];
+                toLandmark = new float[landmarkCount][];
+                for (int l = 0; l < landmarkCount; l++) {
+                    fromLandmark[l] = readFloats(buffer, nodeCount);
+                    toLandmark[l] = readFloats(buffer, nodeCount);
+                }
+            } catch (BufferUnderflowException | ArithmeticException e) {
+                return null;
+            }
+
+            for (int i = 0; i < nodeCount; i++) {
+                for (int lane = laneOffsets[i]; lane < laneOffsets[i + 1]; lane++) {
+                    mapLayout.addLane(nodeIds[i], laneTargets[lane], laneWeights[lane]);
+                }
+                if (!Double.isNaN(positions[2 * i]) && !Double.isNaN(positions[2 * i + 1])) {
+                    mapLayout.setNodePosition(nodeIds[i], positions[2 * i], positions[2 * i + 1]);
+                }
+            }
+            for (int i = 0; i < cachedCount; i++) {
+                Map<Integer, Double> distances = new HashMap<>(nodeCount * 2);
+                for (int node = 0; node < nodeCount; node++) {
+                    double distance = cachedDistances[i * nodeCount + node];
+                    if (!Double.isNaN(distance)) {
+                        distances.put(nodeIds[node], distance);
+                    }
+                }
+                routeCache.put(cachedSources[i], distances);
+            }
+            LandmarkIndex landmarks = null;
+            if (landmarkIds.length > 0) {
+                try {
+                    landmarks = new LandmarkIndex(mapLayout, new LandmarkIndex.Tables(landmarkIds, fromLandmark,
+                            toLandmark));
+                } catch (IllegalArgumentException e) {
+                    landmarks = null;
+                }
+            }
+            return new Restored(landmarks);
+        }
+    }
+
+    /**
+     * Checks that the rest of the buffer holds some ints followed by some bytes, in long
+     * arithmetic so corrupted counts cannot overflow.
+     *
+     * @param buffer     buffer positioned at the ints
+     * @param intCount   number of ints, negative if a count is corrupted
+     * @param intBytes   size of an int
+     * @param extraBytes number of bytes after the ints, negative if a count is corrupted
+     * @return true if the counts are not negative and the buffer is long enough, else false
+     */
+    private static boolean fits(ByteBuffer buffer, long intCount, int intBytes, long extraBytes) {
+        return intCount >= 0 && extraBytes >= 0 && intCount * intBytes + extraBytes <= buffer.remaining();
+    }
+
+    /**
+     * Bulk-reads an array of ints from the buffer and advances it.
+     *
+     * @param buffer buffer positioned at the array
+     * @param length length of the array
+     * @return array read from the buffer
+     */
+    private static int[] readInts(ByteBuffer buffer, int length) {
+        int[] values = new int[length];
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + length * Integer.BYTES);
+        return values;
+    }
+
+    /**
+     * Bulk-reads an array of floats from the buffer and advances it.
+     *
+     * @param buffer buffer positioned at the array
+     * @param length length of the array
+     * @return array read from the buffer
+     */
+    private static float[] readFloats(ByteBuffer buffer, int length) {
+        float[] values = new float[length];
+        buffer.asFloatBuffer().get(values);
+        buffer.position(buffer.position() + length * Float.BYTES);
+        return values;
+    }
+
+    /**
+     * Bulk-reads an array of doubles from the buffer and advances it.
+     *
+     * @param buffer buffer positioned at the array
+     * @param length length of the array
+     * @return array read from the buffer
+     */
+    private static double[] readDoubles(ByteBuffer buffer, int length) {
+        double[] values = new double[length];
+        buffer.asDoubleBuffer().get(values);
+        buffer.position(buffer.position() + length * Double.BYTES);
+        return values;
+    }
+}
@@ -0,0 +1,461 @@
+package org.roux.rideshare.utils;
+
+import org.roux.rideshare.model.Lane;
+import org.roux.rideshare.model.MapLayout;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@code LandmarkIndex} class implements ALT (A*, landmarks and triangle inequality)
+ * routing over a {@link MapLayout}. A few landmark nodes are picked far apart from each other,
+ * and the distances from every landmark to every node and from every node to every landmark
+ * are stored in float arrays. By the triangle inequality, for any landmark L,
+ * d(s, t) is at least d(L, t) - d(L, s) and at least d(s, L) - d(t, L), which gives a lower
+ * bound on the distance between any two nodes in a few array reads. The bound guides an A*
+ * search, and lets callers discard candidates whose bound is already too large.
+ *
+ * <p>The index is read only once built and can be shared by threads. Every thread reuses its
+ * own working arrays across searches and, as in {@link BatchRouter}, a search clears only the
+ * entries it touched, by stamping them with the number of the search, so a search that stops
+ * early costs no more than the nodes it reached.
+ *
+ * @author Venkateshprasad, Prajwal, Gaurav
+ * @version 1.0
+ */
+public class LandmarkIndex {
+    private final int[] nodeIds;
+    private final int[] indexOf;
+    private final int[] offsets;
+    private final int[] targets;
+    private final double[] weights;
+    private final int[] reverseOffsets;
+    private final int[] reverseTargets;
+    private final double[] reverseWeights;
+    private final int[] landmarks;
+    private final float[][] fromLandmark;
+    private final float[][] toLandmark;
+    private final ThreadLocal<Workspace> workspaces;
+
+    /**
+     * Working arrays of the searches of one thread
+     */
+    private static final class Workspace {
+        private final double[] distances;
+        private final int[] reachedStamps;
+        private final int[] settledStamps;
+        private final MinHeap heap;
+        private int stamp;
+
+        Workspace(int nodeCount) {
+            this.distances = new double[nodeCount];
+            this.reachedStamps = new int[nodeCount];
+            this.settledStamps = new int[nodeCount];
+            this.heap = new MinHeap(nodeCount);
+        }
+    }
+
+    /**
+     * Record to maintain the result of a point-to-point search
+     *
+     * @param distance     road distance, {@link Double#POSITIVE_INFINITY} if unreachable
+     * @param settledNodes number of nodes the search settled
+     */
+    public record SearchResult(double distance, int settledNodes) {
+    }
+
+    /**
+     * Record to maintain the landmark tables of an index, e.g. to save them in a
+     * {@link GraphSnapshot}. The rows are indexed by the position of a node among the nodes
+     * with lanes, in ascending node id order, and are to be read only.
+     *
+     * @param landmarks    node ids of the landmarks
+     * @param fromLandmark distances from every landmark to every node
+     * @param toLandmark   distances from every node to every landmark
+     */
+    public record Tables(int[] landmarks, float[][] fromLandmark, float[][] toLandmark) {
+    }
+
+    /**
+     * Constructs a new {@code LandmarkIndex}, picking the landmarks by farthest-point selection:
+     * the first landmark is the node farthest from the lowest node id, and each next one is the
+     * node whose distance to the landmarks picked so far is the largest.
+     *
+     * @param mapLayout     graph layout of the map
+     * @param landmarkCount number of landmarks, at most the number of nodes
+     */
+    public LandmarkIndex(MapLayout mapLayout, int landmarkCount) {
+        this(mapLayout, landmarkCount, null);
+    }
+
+    /**
+     * Constructs a new {@code LandmarkIndex} from landmark tables saved before, so the
+     * searches from every landmark are not run again.
+     *
+     * @param mapLayout graph layout of the map the tables were computed on
+     * @param tables    landmark tables of an index of the same map
+     * @throws IllegalArgumentException if the tables do not match the nodes of the map
+     */
+    public LandmarkIndex(MapLayout mapLayout, Tables tables) {
+        this(mapLayout, tables.landmarks().length, tables);
+    }
+
+    /**
+     * Constructs a new {@code LandmarkIndex}, restoring its landmark tables if given or else
+     * picking the landmarks by farthest-point selection.
+     *
+     * @param mapLayout     graph layout of the map
+     * @param landmarkCount number of landmarks, at most the number of nodes
+     * @param tables        landmark tables of an index of the same map, null to compute them
+     * @throws IllegalArgumentException if the tables do not match the nodes of the map
+     */
+    private LandmarkIndex(MapLayout mapLayout, int landmarkCount, Tables tables) {
+        Map<Integer, List<Lane>> adjList = mapLayout.getVerticesAdjList();
+        this.nodeIds = adjList.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+        int maxNode = nodeIds.length == 0 ? 0 : nodeIds[nodeIds.length - 1];
+        for (List<Lane> lanes : adjList.values()) {
+            for (Lane lane : lanes) {
+                maxNode = Math.max(maxNode, lane.getTarget());
+            }
+        }
+        this.indexOf = new int[maxNode + 1];
+        Arrays.fill(indexOf, -1);
+        for (int i = 0; i < nodeIds.length; i++) {
+            indexOf[nodeIds[i]] = i;
+        }
+        int nodeCount = nodeIds.length;
+        int laneCount = 0;
+        int[] reverseDegrees = new int[nodeCount + 1];
+        for (int node : nodeIds) {
+            for (Lane lane : adjList.get(node)) {
+                if (indexOf[lane.getTarget()] >= 0) {
+                    laneCount++;
+                    reverseDegrees[indexOf[lane.getTarget()] + 1]++;
+                }
+            }
+        }
+        this.offsets = new int[nodeCount + 1];
+        this.targets = new int[laneCount];
+        this.weights = new double[laneCount];
+        this.reverseOffsets = new int[nodeCount + 1];
+        this.reverseTargets = new int[laneCount];
+        this.reverseWeights = new double[laneCount];
+        for (int i = 0; i < nodeCount; i++) {
+            reverseOffsets[i + 1] = reverseOffsets[i] + reverseDegrees[i + 1];
+        }
+        int[] reverseFill = Arrays.copyOf(reverseOffsets, nodeCount);
+        int edge = 0;
+        for (int i = 0; i < nodeCount; i++) {
+            offsets[i] = edge;
+            for (Lane lane : adjList.get(nodeIds[i])) {
+                int target = indexOf[lane.getTarget()];
+                if (target >= 0) {
+                    targets[edge] = target;
+                    weights[edge] = lane.getWeight();
+                    reverseTargets[reverseFill[target]] = i;
+                    reverseWeights[reverseFill[target]++] = lane.getWeight();
+                    edge++;
+                }
+            }
+        }
+        offsets[nodeCount] = edge;
+
+        this.workspaces = ThreadLocal.withInitial(() -> new Workspace(nodeCount));
+        if (tables != null) {
+            this.landmarks = restoreLandmarks(tables, nodeCount);
+            this.fromLandmark = tables.fromLandmark();
+            this.toLandmark = tables.toLandmark();
+            return;
+        }
+        int count = Math.min(landmarkCount, nodeCount);
+        this.landmarks = new int[count];
+        this.fromLandmark = new float[count][];
+        this.toLandmark = new float[count][];
+        double[] closestLandmark = new double[nodeCount];
+        Arrays.fill(closestLandmark, Double.POSITIVE_INFINITY);
+        int next = count == 0 ? -1 : farthest(dijkstra(0, offsets, targets, weights), null);
+        for (int l = 0; l < count; l++) {
+            landmarks[l] = next;
+            double[] from = dijkstra(next, offsets, targets, weights);
+            fromLandmark[l] = toFloats(from);
+            toLandmark[l] = toFloats(dijkstra(next, reverseOffsets, reverseTargets, reverseWeights));
+            for (int i = 0; i < nodeCount; i++) {
+                closestLandmark[i] = Math.min(closestLandmark[i], from[i]);
+            }
+            next = farthest(closestLandmark, Arrays.copyOf(landmarks, l + 1));
+        }
+    }
+
+    /**
+     * Checks saved landmark tables against the nodes of the map and maps their landmarks to
+     * node indices.
+     *
+     * @param tables    saved landmark tables
+     * @param nodeCount number of nodes with lanes
+     * @return index of every landmark
+     * @throws IllegalArgumentException if the tables do not match the nodes of the map
+     */
+    private int[] restoreLandmarks(Tables tables, int nodeCount) {
+        int count = tables.landmarks().length;
+        if (tables.fromLandmark().length != count || tables.toLandmark().length != count) {
+            throw new IllegalArgumentException("Got tables of " + tables.fromLandmark().length + " and "
+                    + tables.toLandmark().length + " rows for " + count + " landmarks");
+        }
+        int[] indices = new int[count];
+        for (int l = 0; l < count; l++) {
+            indices[l] = index(tables.landmarks()[l]);
+            if (indices[l] < 0 || tables.fromLandmark()[l].length != nodeCount
+                    || tables.toLandmark()[l].length != nodeCount) {
+                throw new IllegalArgumentException("Landmark " + tables.landmarks()[l]
+                        + " does not match the " + nodeCount + " nodes of the map");
+            }
+        }
+        return indices;
+    }
+
+    /**
+     * Runs Dijkstra's algorithm over compressed sparse rows of lanes.
+     *
+     * @param source  index of the source node
+     * @param offsets first lane of every node
+     * @param targets target of every lane
+     * @param weights weight of every lane
+     * @return distance of every node index from the source
+     */
+    private double[] dijkstra(int source, int[] offsets, int[] targets, double[] weights) {
+        double[] distances = new double[nodeIds.length];
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        MinHeap heap = new MinHeap(nodeIds.length);
+        distances[source] = 0;
+        heap.push(source, 0);
+        while (!heap.isEmpty()) {
+            double distance = heap.peekKey();
+            int node = heap.pop();
+            if (distance > distances[node]) {
+                continue;
+            }
+            for (int edge = offsets[node]; edge < offsets[node + 1]; edge++) {
+                double candidate = distance + weights[edge];
+                if (candidate < distances[targets[edge]]) {
+                    distances[targets[edge]] = candidate;
+                    heap.push(targets[edge], candidate);
+                }
+            }
+        }
+        return distances;
+    }
+
+    /**
+     * Finds the reachable node index with the largest distance, skipping the landmarks.
+     *
+     * @param distances distance of every node index
+     * @param skipped   node indices already picked, or null
+     * @return node index with the largest finite distance
+     */
+    private static int farthest(double[] distances, int[] skipped) {
+        int farthest = 0;
+        double largest = -1;
+        for (int i = 0; i < distances.length; i++) {
+            if (distances[i] > largest && distances[i] < Double.POSITIVE_INFINITY && !contains(skipped, i)) {
+                largest = distances[i];
+                farthest = i;
+            }
+        }
+        return farthest;
+    }
+
+    /**
+     * Checks whether an array holds a value.
+     *
+     * @param values array to look in, or null
+     * @param value  value to look for
+     * @return true if the value is in the array, else false
+     */
+    private static boolean contains(int[] values, int value) {
+        if (values != null) {
+            for (int candidate : values) {
+                if (candidate == value) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Narrows distances to floats, keeping unreachable nodes at infinity.
+     *
+     * @param distances distances as doubles
+     * @return distances as floats
+     */
+    private static float[] toFloats(double[] distances) {
+        float[] floats = new float[distances.length];
+        for (int i = 0; i < distances.length; i++) {
+            floats[i] = (float) distances[i];
+        }
+        return floats;
+    }
+
+    /**
+     * Computes a lower bound on the road distance between two nodes. Unknown nodes get a
+     * bound of 0, and a bound of infinity means the target cannot be reached.
+     *
+     * @param source source node
+     * @param target target node
+     * @return lower bound on the distance from source to target
+     */
+    public double lowerBound(int source, int target) {
+        int s = index(source);
+        int t = index(target);
+        return s < 0 || t < 0 ? 0 : lowerBoundOfIndices(s, t);
+    }
+
+    /**
+     * Computes the landmark lower bound between two node indices. The float rounding of the
+     * stored distances is taken off the bound, so it never exceeds the exact distance.
+     *
+     * @param s index of the source node
+     * @param t index of the target node
+     * @return lower bound on the distance from s to t
+     */
+    private double lowerBoundOfIndices(int s, int t) {
+        double bound = 0;
+        for (int l = 0; l < landmarks.length; l++) {
+            float fromS = fromLandmark[l][s];
+            float fromT = fromLandmark[l][t];
+            float toS = toLandmark[l][s];
+            float toT = toLandmark[l][t];
+            if (fromS < Float.POSITIVE_INFINITY && fromT == Float.POSITIVE_INFINITY
+                    || toT < Float.POSITIVE_INFINITY && toS == Float.POSITIVE_INFINITY) {
+                return Double.POSITIVE_INFINITY;
+            }
+            if (fromT < Float.POSITIVE_INFINITY && fromS < Float.POSITIVE_INFINITY) {
+                bound = Math.max(bound, fromT - fromS - 2 * Math.ulp(Math.max(fromT, fromS)));
+            }
+            if (toS < Float.POSITIVE_INFINITY && toT < Float.POSITIVE_INFINITY) {
+                bound = Math.max(bound, toS - toT - 2 * Math.ulp(Math.max(toS, toT)));
+            }
+        }
+        return bound;
+    }
+
+    /**
+     * Computes the road distances from a node to every node. The landmarks do not help a
+     * search without a target, so this is a plain Dijkstra search over the lanes of the index.
+     *
+     * @param source source node
+     * @return distance of every node indexed by node id, {@link Double#POSITIVE_INFINITY} if unreachable
+     */
+    public double[] distancesFrom(int source) {
+        double[] row = new double[indexOf.length];
+        Arrays.fill(row, Double.POSITIVE_INFINITY);
+        int s = index(source);
+        if (s < 0) {
+            if (source >= 0 && source < row.length) {
+                row[source] = 0;
+            }
+            return row;
+        }
+        double[] distances = dijkstra(s, offsets, targets, weights);
+        for (int i = 0; i < nodeIds.length; i++) {
+            row[nodeIds[i]] = distances[i];
+        }
+        return row;
+    }
+
+    /**
+     * Computes the road distance between two nodes with an A* search guided by the
+     * landmark lower bounds.
+     *
+     * @param source source node
+     * @param target target node
+     * @return road distance, {@link Double#POSITIVE_INFINITY} if target is unreachable
+     */
+    public double distance(int source, int target) {
+        return search(source, target, Double.POSITIVE_INFINITY).distance();
+    }
+
+    /**
+     * Searches the road distance between two nodes with A*, giving up once every remaining
+     * route is provably longer than a limit. Since the bounds are consistent, the search
+     * stops as soon as the target is settled.
+     *
+     * @param source source node
+     * @param target target node
+     * @param limit  distance beyond which the search gives up
+     * @return distance found, {@link Double#POSITIVE_INFINITY} if unreachable within the limit,
+     * with the number of settled nodes
+     */
+    public SearchResult search(int source, int target, double limit) {
+        int s = index(source);
+        int t = index(target);
+        if (s < 0 || t < 0) {
+            return new SearchResult(source == target ? 0 : Double.POSITIVE_INFINITY, 0);
+        }
+        Workspace workspace = workspaces.get();
+        int stamp = ++workspace.stamp;
+        double[] distances = workspace.distances;
+        int[] reachedStamps = workspace.reachedStamps;
+        int[] settledStamps = workspace.settledStamps;
+        MinHeap heap = workspace.heap;
+        heap.clear();
+        distances[s] = 0;
+        reachedStamps[s] = stamp;
+        heap.push(s, lowerBoundOfIndices(s, t));
+        int settledNodes = 0;
+        while (!heap.isEmpty()) {
+            double estimate = heap.peekKey();
+            int node = heap.pop();
+            if (settledStamps[node] == stamp) {
+                continue;
+            }
+            if (estimate > limit) {
+                break;
+            }
+            settledStamps[node] = stamp;
+            settledNodes++;
+            if (node == t) {
+                return new SearchResult(distances[t], settledNodes);
+            }
+            for (int edge = offsets[node]; edge < offsets[node + 1]; edge++) {
+                int next = targets[edge];
+                double candidate = distances[node] + weights[edge];
+                if (settledStamps[next] != stamp && (reachedStamps[next] != stamp || candidate < distances[next])) {
+                    distances[next] = candidate;
+                    reachedStamps[next] = stamp;
+                    heap.push(next, candidate + lowerBoundOfIndices(next, t));
+                }
+            }
+        }
+        return new SearchResult(Double.POSITIVE_INFINITY, settledNodes);
+    }
+
+    /**
+     * Maps a node id to its index in the arrays of the index.
+     *
+     * @param node node id
+     * @return index of the node, -1 if the node is unknown
+     */
+    private int index(int node) {
+        return node >= 0 && node < indexOf.length ? indexOf[node] : -1;
+    }
+
+    /**
+     * Getter method for the landmark tables
+     *
+     * @return landmarks and their distance tables, to be saved and restored
+     */
+    public Tables getTables() {
+        return new Tables(getLandmarks(), fromLandmark, toLandmark);
+    }
+
+    /**
+     * Getter method for the landmark nodes
+     *
+     * @return node ids of the landmarks
+     */
+    public int[] getLandmarks() {
+        return Arrays.stream(landmarks).map(i -> nodeIds[i]).toArray();
+    }
+}
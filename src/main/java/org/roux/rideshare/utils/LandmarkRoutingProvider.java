@@ -0,0 +1,64 @@
+package org.roux.rideshare.utils;
+
+import org.roux.rideshare.model.MapLayout;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The {@code LandmarkRoutingProvider} class provides the {@link LandmarkIndex} as a
+ * {@link RoutingEngine}. Point-to-point queries are A* searches guided by the landmarks, which
+ * settle a small part of a large map, at the cost of two float rows per landmark.
+ *
+ * @author Venkateshprasad, Prajwal, Gaurav
+ * @version 1.0
+ */
+public class LandmarkRoutingProvider implements RoutingEngineProvider {
+    /**
+     * Name of the engine
+     */
+    public static final String NAME = "alt";
+    private static final int MINIMUM_NODE_COUNT = 5000;
+    private static final int LANDMARK_COUNT = 8;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public int getMinimumNodeCount() {
+        return MINIMUM_NODE_COUNT;
+    }
+
+    @Override
+    public long estimateMemoryBytes(int nodeCount, int laneCount) {
+        long lanes = 2L * laneCount * (Integer.BYTES + Double.BYTES);
+        long nodes = (long) nodeCount * 4 * Integer.BYTES;
+        long landmarks = 2L * LANDMARK_COUNT * nodeCount * Float.BYTES;
+        return lanes + nodes + landmarks;
+    }
+
+    @Override
+    public RoutingEngine create(MapLayout mapLayout) {
+        LandmarkIndex landmarks = new LandmarkIndex(mapLayout, LANDMARK_COUNT);
+        LongAdder settledNodes = new LongAdder();
+        return new RoutingEngine() {
+            @Override
+            public double[] distancesFrom(int source) {
+                return landmarks.distancesFrom(source);
+            }
+
+            @Override
+            public double distance(int source, int target) {
+                LandmarkIndex.SearchResult result = landmarks.search(source, target, Double.POSITIVE_INFINITY);
+                settledNodes.add(result.settledNodes());
+                return result.distance();
+            }
+
+            @Override
+            public long getSettledNodeCount() {
+                return settledNodes.sum();
+            }
+        };
+    }
+}
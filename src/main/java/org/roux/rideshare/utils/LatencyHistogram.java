@@ -0,0 +1,123 @@
+package org.roux.rideshare.utils;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The {@code LatencyHistogram} class counts latencies in buckets of logarithmic width, so
+ * percentiles can be read while the latencies are still being recorded. Every power of two
+ * of nanoseconds is split into {@value #SUB_BUCKETS} buckets, which bounds the error of a
+ * percentile to about 12%. Recording is lock free and can be done by any thread; readers take
+ * a {@link #snapshot()} and subtract an earlier one to get the percentiles of an interval.
+ *
+ * @author Venkateshprasad, Prajwal, Gaurav
+ * @version 1.0
+ */
+public class LatencyHistogram {
+    /**
+     * Number of buckets every power of two is split into
+     */
+    public static final int SUB_BUCKETS = 8;
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+
+    /**
+     * Records a latency.
+     *
+     * @param nanos latency in nanoseconds, negative values are counted as 0
+     */
+    public void record(long nanos) {
+        counts.incrementAndGet(bucketOf(Math.max(0, nanos)));
+    }
+
+    /**
+     * Copies the counts of the buckets. The copy is not atomic, so latencies recorded during
+     * the copy may or may not be counted.
+     *
+     * @return count of every bucket
+     */
+    public long[] snapshot() {
+        long[] snapshot = new long[BUCKET_COUNT];
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+            snapshot[bucket] = counts.get(bucket);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Reads a percentile from the counts of the buckets.
+     *
+     * @param counts   count of every bucket, e.g. the difference of two snapshots
+     * @param fraction percentile as a fraction
+     * @return upper bound of the bucket holding the percentile in nanoseconds, 0 if nothing is counted
+     */
+    public static long percentile(long[] counts, double fraction) {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(fraction * total));
+        long seen = 0;
+        for (int bucket = 0; bucket < counts.length; bucket++) {
+            seen += counts[bucket];
+            if (seen >= rank) {
+                return upperBoundOf(bucket);
+            }
+        }
+        return upperBoundOf(counts.length - 1);
+    }
+
+    /**
+     * Subtracts the counts of an earlier snapshot from a later one.
+     *
+     * @param later   later snapshot
+     * @param earlier earlier snapshot, null to keep the later one
+     * @return counts recorded between the snapshots
+     */
+    public static long[] difference(long[] later, long[] earlier) {
+        long[] difference = later.clone();
+        if (earlier != null) {
+            for (int bucket = 0; bucket < difference.length; bucket++) {
+                difference[bucket] -= earlier[bucket];
+            }
+        }
+        return difference;
+    }
+
+    /**
+     * Finds the bucket of a latency. Latencies below {@value #SUB_BUCKETS} nanoseconds have a
+     * bucket each; above, the highest bits select the power of two and the next
+     * {@code SUB_BUCKET_BITS} bits the bucket within it.
+     *
+     * @param nanos latency in nanoseconds, not negative
+     * @return index of the bucket
+     */
+    private static int bucketOf(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) nanos;
+        }
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(nanos);
+        int subBucket = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Computes the largest latency of a bucket.
+     *
+     * @param bucket index of the bucket
+     * @return largest latency of the bucket in nanoseconds
+     */
+    private static long upperBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS - 1 + SUB_BUCKET_BITS;
+        long subBucket = bucket % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        long lowerBound = (1L << exponent) + subBucket * width;
+        return lowerBound + width - 1;
+    }
+}
@@ -0,0 +1,87 @@
+package org.roux.rideshare.utils;
+
+/**
+ * The {@code LegDistanceCache} class memoizes the road distance of single legs, from one node
+ * to another, in a direct-mapped table in front of a {@link RouteCache} or any other
+ * {@link DistanceOracle}. A leg that was asked for recently is answered with one array read
+ * and no boxing, which keeps repeated price checks cheap. Entries are immutable and replaced whole, so readers on any thread see
+ * either an old entry or a new one, never a torn one.
+ *
+ * @author Venkateshprasad, Prajwal, Gaurav
+ * @version 1.0
+ */
+public class LegDistanceCache {
+    private final DistanceOracle oracle;
+    private final Entry[] entries;
+    private final int mask;
+
+    /**
+     * Record to maintain a cached leg
+     *
+     * @param key      packed (source, target) pair of the leg
+     * @param distance road distance of the leg
+     */
+    private record Entry(long key, double distance) {
+    }
+
+    /**
+     * Source of the road distance between two nodes
+     */
+    @FunctionalInterface
+    public interface DistanceOracle {
+        /**
+         * Computes the road distance from one node to another.
+         *
+         * @param source source node
+         * @param target target node
+         * @return road distance, {@link Double#POSITIVE_INFINITY} if target is unreachable
+         */
+        double distance(int source, int target);
+    }
+
+    /**
+     * Constructs a new {@code LegDistanceCache} over a {@link RouteCache}.
+     *
+     * @param routeCache cache of the distances from every source node
+     * @param capacity   number of legs the table holds, rounded up to a power of two
+     */
+    public LegDistanceCache(RouteCache routeCache, int capacity) {
+        this((source, target) -> RoutingEngine.distanceOf(routeCache.distancesFrom(source), target), capacity);
+    }
+
+    /**
+     * Constructs a new {@code LegDistanceCache} over a {@link DistanceOracle}.
+     *
+     * @param oracle   computes the distances missing from the table
+     * @param capacity number of legs the table holds, rounded up to a power of two
+     */
+    public LegDistanceCache(DistanceOracle oracle, int capacity) {
+        this.oracle = oracle;
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.entries = new Entry[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Returns the road distance from one node to another.
+     *
+     * @param source source node of the leg
+     * @param target target node of the leg
+     * @return distance of the leg, {@link Double#POSITIVE_INFINITY} if target is unreachable
+     */
+    public double distance(int source, int target) {
+        if (source == target) {
+            return 0;
+        }
+        long key = ((long) source << 32) | (target & 0xFFFFFFFFL);
+        long mixed = key * 0x9E3779B97F4A7C15L;
+        int slot = (int) (mixed ^ (mixed >>> 32)) & mask;
+        Entry entry = entries[slot];
+        if (entry != null && entry.key() == key) {
+            return entry.distance();
+        }
+        double distance = oracle.distance(source, target);
+        entries[slot] = new Entry(key, distance);
+        return distance;
+    }
+}
@@ -0,0 +1,100 @@
+package org.roux.rideshare.utils;
+
+import java.util.Arrays;
+
+/**
+ * The {@code MinHeap} class is a binary min-heap of node indices keyed by distance, used by
+ * the searches over compressed sparse rows of lanes. A node pushed again with a smaller key
+ * is kept twice instead of being decreased in place, and searches skip the stale entries.
+ *
+ * @author Venkateshprasad, Prajwal, Gaurav
+ * @version 1.0
+ */
+final class MinHeap {
+    private int[] nodes;
+    private double[] keys;
+    private int size;
+
+    /**
+     * Constructs a new empty {@code MinHeap} with specified initial capacity.
+     *
+     * @param capacity initial number of entries
+     */
+    MinHeap(int capacity) {
+        this.nodes = new int[Math.max(1, capacity)];
+        this.keys = new double[Math.max(1, capacity)];
+    }
+
+    /**
+     * Checks whether the heap has no entries
+     *
+     * @return true if the heap is empty, else false
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes all the entries, keeping the arrays for the next search.
+     */
+    void clear() {
+        size = 0;
+    }
+
+    /**
+     * Getter method for the smallest key
+     *
+     * @return key of the top entry
+     */
+    double peekKey() {
+        return keys[0];
+    }
+
+    /**
+     * Adds a node with a key.
+     *
+     * @param node index of the node
+     * @param key  distance of the node
+     */
+    void push(int node, double key) {
+        if (size == nodes.length) {
+            nodes = Arrays.copyOf(nodes, size * 2);
+            keys = Arrays.copyOf(keys, size * 2);
+        }
+        int i = size++;
+        while (i > 0 && keys[(i - 1) / 2] > key) {
+            nodes[i] = nodes[(i - 1) / 2];
+            keys[i] = keys[(i - 1) / 2];
+            i = (i - 1) / 2;
+        }
+        nodes[i] = node;
+        keys[i] = key;
+    }
+
+    /**
+     * Removes the entry with the smallest key.
+     *
+     * @return index of the node of the removed entry
+     */
+    int pop() {
+        int top = nodes[0];
+        int lastNode = nodes[--size];
+        double lastKey = keys[size];
+        int i = 0;
+        while (2 * i + 1 < size) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && keys[child + 1] < keys[child]) {
+                child++;
+            }
+            if (keys[child] >= lastKey) {
+                break;
+            }
+            nodes[i] = nodes[child];
+            keys[i] = keys[child];
+            i = child;
+        }
+        nodes[i] = lastNode;
+        keys[i] = lastKey;
+        return top;
+    }
+}
@@ -0,0 +1,233 @@
+package org.roux.rideshare.utils;
+
+import org.roux.rideshare.model.RideRequest;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The {@code RequestIngestor} class streams {@link RideRequest} records from a trace file or
+ * a local socket into a bounded queue, one record per line in the form
+ * {@code time,source,destination,shareRide}. A background reader thread parses the lines and
+ * blocks when the queue is full, so a slow dispatcher slows down the reading instead of
+ * letting requests pile up in memory. Lines that do not parse are skipped and counted.
+ *
+ * <p>In {@link Pacing#REAL_TIME} mode each request is released at its trace time relative to
+ * the first one; in {@link Pacing#AS_FAST_AS_POSSIBLE} mode the requests are released as fast
+ * as the queue accepts them. {@link RideRequest#END_OF_STREAM} is queued after the last one.
+ *
+ * @author Venkateshprasad, Prajwal, Gaurav
+ * @version 1.0
+ */
+public class RequestIngestor implements AutoCloseable {
+    private static final System.Logger logger = System.getLogger(RequestIngestor.class.getName());
+    private final BufferedReader reader;
+    private final Closeable connection;
+    private final BlockingQueue<RideRequest> queue;
+    private final Pacing pacing;
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong skippedCount = new AtomicLong();
+    private final Thread readerThread;
+    private volatile long startNanos;
+    private volatile long endNanos;
+
+    /**
+     * Release modes of the requests of a trace
+     */
+    public enum Pacing {
+        /**
+         * Requests are released at the pace of their trace times
+         */
+        REAL_TIME,
+        /**
+         * Requests are released as soon as the queue has room
+         */
+        AS_FAST_AS_POSSIBLE
+    }
+
+    /**
+     * Constructs a new {@code RequestIngestor} reading lines from a reader.
+     *
+     * @param reader     source of the request lines
+     * @param connection resource closed with the ingestor, e.g. a socket, or null
+     * @param queue      bounded queue receiving the requests
+     * @param pacing     release mode of the requests
+     */
+    public RequestIngestor(BufferedReader reader, Closeable connection,
+                           BlockingQueue<RideRequest> queue, Pacing pacing) {
+        this.reader = reader;
+        this.connection = connection;
+        this.queue = queue;
+        this.pacing = pacing;
+        this.readerThread = new Thread(this::ingest, "request-ingestor");
+        this.readerThread.setDaemon(true);
+    }
+
+    /**
+     * Opens an ingestor over a trace file.
+     *
+     * @param path   path of the trace file
+     * @param queue  bounded queue receiving the requests
+     * @param pacing release mode of the requests
+     * @return new ingestor, not started yet
+     * @throws IOException if the file cannot be opened
+     */
+    public static RequestIngestor fromFile(Path path, BlockingQueue<RideRequest> queue, Pacing pacing)
+            throws IOException {
+        return new RequestIngestor(Files.newBufferedReader(path, StandardCharsets.UTF_8), null, queue, pacing);
+    }
+
+    /**
+     * Opens an ingestor over the first connection accepted on a local port. Only the loopback
+     * interface is listened on.
+     *
+     * @param port   local port to listen on
+     * @param queue  bounded queue receiving the requests
+     * @param pacing release mode of the requests
+     * @return new ingestor, not started yet
+     * @throws IOException if the port cannot be listened on or no connection is accepted
+     */
+    public static RequestIngestor fromSocket(int port, BlockingQueue<RideRequest> queue, Pacing pacing)
+            throws IOException {
+        Socket socket;
+        try (ServerSocket serverSocket = new ServerSocket(port, 1, InetAddress.getLoopbackAddress())) {
+            socket = serverSocket.accept();
+        }
+        BufferedReader reader = new BufferedReader(
+                new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        return new RequestIngestor(reader, socket, queue, pacing);
+    }
+
+    /**
+     * Starts the reader thread.
+     */
+    public void start() {
+        startNanos = System.nanoTime();
+        readerThread.start();
+    }
+
+    /**
+     * Reads, paces and queues the requests until the end of the stream, then queues the
+     * end marker. The dispatcher waits for the marker, so it is queued even when the reader
+     * is interrupted, and the interrupt is restored afterwards.
+     */
+    private void ingest() {
+        long firstTime = Long.MIN_VALUE;
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                RideRequest request;
+                try {
+                    request = RideRequest.parse(line);
+                } catch (IllegalArgumentException e) {
+                    skippedCount.incrementAndGet();
+                    continue;
+                }
+                if (pacing == Pacing.REAL_TIME) {
+                    if (firstTime == Long.MIN_VALUE) {
+                        firstTime = request.timeMillis();
+                    }
+                    long waitNanos = (request.timeMillis() - firstTime) * 1_000_000 - (System.nanoTime() - startNanos);
+                    if (waitNanos > 0) {
+                        Thread.sleep(waitNanos / 1_000_000, (int) (waitNanos % 1_000_000));
+                    }
+                }
+                queue.put(request);
+                requestCount.incrementAndGet();
+            }
+        } catch (IOException e) {
+            logger.log(System.Logger.Level.WARNING, "Request stream failed, ending ingestion", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            endNanos = System.nanoTime();
+            boolean interrupted = Thread.interrupted();
+            while (true) {
+                try {
+                    queue.put(RideRequest.END_OF_STREAM);
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Getter method for the number of queued requests
+     *
+     * @return number of requests queued so far
+     */
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    /**
+     * Getter method for the number of skipped lines
+     *
+     * @return number of lines that did not parse as requests
+     */
+    public long getSkippedCount() {
+        return skippedCount.get();
+    }
+
+    /**
+     * Computes the sustained ingestion rate since the start, or over the whole stream once
+     * it has ended.
+     *
+     * @return requests queued per second
+     */
+    public double getRequestsPerSecond() {
+        long end = endNanos != 0 ? endNanos : System.nanoTime();
+        double seconds = (end - startNanos) / 1e9;
+        return seconds > 0 ? requestCount.get() / seconds : 0;
+    }
+
+    /**
+     * Getter method for the depth of the queue
+     *
+     * @return number of requests waiting for the dispatcher
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * Checks whether the whole stream has been read.
+     *
+     * @return true if the end marker was reached, else false
+     */
+    public boolean isFinished() {
+        return endNanos != 0;
+    }
+
+    /**
+     * Stops reading and closes the stream.
+     *
+     * @throws IOException if the stream cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        readerThread.interrupt();
+        reader.close();
+        if (connection != null) {
+            connection.close();
+        }
+    }
+}
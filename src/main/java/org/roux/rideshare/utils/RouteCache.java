@@ -0,0 +1,257 @@
+package org.roux.rideshare.utils;
+
+import org.roux.rideshare.model.MapLayout;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The {@code RouteCache} class memoizes the distances from a source node to all nodes,
+ * computed by a {@link RoutingEngine}, so repeated bookings from the same place do not search
+ * the graph again. Distances are cached as primitive rows indexed by node id, and as maps for
+ * the callers that want them. The cached distances can be saved and restored with a
+ * {@link GraphSnapshot} for a warm restart.
+ *
+ * <p>The cache keeps at most the memory budget of the {@code rideshare.routeCache.memoryMegabytes}
+ * system property, a quarter of the maximum heap by default, unless it is given its own
+ * budget, e.g. a share of the default when several caches live side by side. When a new source
+ * goes over the budget, the sources cached first are evicted, row and map together, until it
+ * fits again; an evicted source is computed again on its next request.
+ *
+ * @author Venkateshprasad, Prajwal, Gaurav
+ * @version 1.0
+ */
+public class RouteCache {
+    /**
+     * System property giving the memory budget of the cached distances, in megabytes
+     */
+    public static final String MEMORY_BUDGET_PROPERTY = "rideshare.routeCache.memoryMegabytes";
+    private static final long MAP_ENTRY_BYTES = 64;
+    private final MapLayout mapLayout;
+    private volatile RoutingEngine engine;
+    private final Map<Integer, double[]> rowsBySource = new ConcurrentHashMap<>();
+    private final Map<Integer, Map<Integer, Double>> distancesBySource = new ConcurrentHashMap<>();
+    private final Queue<Integer> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final Set<Integer> queuedSources = ConcurrentHashMap.newKeySet();
+    private final AtomicLong cachedBytes = new AtomicLong();
+    private final long memoryBudgetBytes;
+
+    /**
+     * Constructs a new {@code RouteCache} for specified {@link RoutingEngine}.
+     *
+     * @param engine routing engine computing missing entries
+     */
+    public RouteCache(RoutingEngine engine) {
+        this(engine, defaultMemoryBudgetBytes());
+    }
+
+    /**
+     * Constructs a new {@code RouteCache} for specified {@link RoutingEngine} with a memory
+     * budget of its own.
+     *
+     * @param engine            routing engine computing missing entries
+     * @param memoryBudgetBytes memory the cached distances may take, in bytes
+     */
+    public RouteCache(RoutingEngine engine, long memoryBudgetBytes) {
+        this.mapLayout = null;
+        this.engine = engine;
+        this.memoryBudgetBytes = memoryBudgetBytes;
+    }
+
+    /**
+     * Constructs a new {@code RouteCache} for specified {@link MapLayout}. The routing engine is
+     * picked by {@link RoutingEngines#select(MapLayout)} on the first missing entry, so the map
+     * may still be built or restored after the cache is created.
+     *
+     * @param mapLayout graph layout of the map
+     */
+    public RouteCache(MapLayout mapLayout) {
+        this.mapLayout = mapLayout;
+        this.memoryBudgetBytes = defaultMemoryBudgetBytes();
+    }
+
+    /**
+     * Returns the routing engine of the cache, picking it on the first call.
+     *
+     * @return routing engine computing missing entries
+     */
+    public RoutingEngine getEngine() {
+        RoutingEngine selected = engine;
+        if (selected == null) {
+            synchronized (this) {
+                if (engine == null) {
+                    engine = RoutingEngines.select(mapLayout);
+                }
+                selected = engine;
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Returns the distances from a source node to all other nodes, computing and caching
+     * them on the first request.
+     *
+     * @param source source node of the graph
+     * @return distances of all nodes indexed by node id, to be read only; read them with
+     * {@link RoutingEngine#distanceOf(double[], int)}
+     */
+    public double[] distancesFrom(int source) {
+        double[] row = rowsBySource.get(source);
+        if (row != null) {
+            return row;
+        }
+        boolean[] computed = new boolean[1];
+        row = rowsBySource.computeIfAbsent(source, node -> {
+            computed[0] = true;
+            Map<Integer, Double> restored = distancesBySource.get(node);
+            return restored != null ? toRow(restored) : getEngine().distancesFrom(node);
+        });
+        if (computed[0]) {
+            admit(source, bytesOf(row));
+        }
+        return row;
+    }
+
+    /**
+     * Returns the distances from a source node to all other nodes, computing and caching
+     * them on the first request.
+     *
+     * @param source source node of the graph
+     * @return unmodifiable distances of all reachable nodes from source
+     */
+    public Map<Integer, Double> shortestPaths(int source) {
+        Map<Integer, Double> distances = distancesBySource.get(source);
+        if (distances != null) {
+            return distances;
+        }
+        distances = Collections.unmodifiableMap(toMap(distancesFrom(source)));
+        Map<Integer, Double> cached = distancesBySource.putIfAbsent(source, distances);
+        if (cached != null) {
+            return cached;
+        }
+        admit(source, bytesOf(distances));
+        return distances;
+    }
+
+    /**
+     * Adds distances computed elsewhere, e.g. loaded from a {@link GraphSnapshot}.
+     *
+     * @param source              source node of the graph
+     * @param distancesFromSource distances of all nodes from source
+     */
+    public void put(int source, Map<Integer, Double> distancesFromSource) {
+        Map<Integer, Double> distances = Collections.unmodifiableMap(distancesFromSource);
+        cachedBytes.addAndGet(-bytesOf(distancesBySource.put(source, distances))
+                - bytesOf(rowsBySource.remove(source)));
+        admit(source, bytesOf(distances));
+    }
+
+    /**
+     * Getter method for distancesBySource attribute. Sources only cached as rows are added
+     * to the maps first.
+     *
+     * @return unmodifiable view of the cached distances by source node
+     */
+    public Map<Integer, Map<Integer, Double>> getDistancesBySource() {
+        rowsBySource.keySet().forEach(this::shortestPaths);
+        return Collections.unmodifiableMap(distancesBySource);
+    }
+
+    /**
+     * Counts a newly cached entry against the memory budget, evicting the sources cached
+     * first while the budget is exceeded. A source is queued for eviction once, when its
+     * first entry is cached, so its row and its map are evicted together.
+     *
+     * @param source source node of the entry
+     * @param bytes  estimated size of the entry
+     */
+    private void admit(int source, long bytes) {
+        if (queuedSources.add(source)) {
+            insertionOrder.add(source);
+        }
+        long total = cachedBytes.addAndGet(bytes);
+        while (total > memoryBudgetBytes) {
+            Integer oldest = insertionOrder.poll();
+            if (oldest == null) {
+                return;
+            }
+            queuedSources.remove(oldest);
+            total = cachedBytes.addAndGet(-bytesOf(rowsBySource.remove(oldest))
+                    - bytesOf(distancesBySource.remove(oldest)));
+        }
+    }
+
+    /**
+     * Reads the default memory budget of a cache from its system property.
+     *
+     * @return memory budget in bytes
+     */
+    public static long defaultMemoryBudgetBytes() {
+        String memoryBudget = System.getProperty(MEMORY_BUDGET_PROPERTY);
+        return memoryBudget == null || memoryBudget.isBlank()
+                ? Runtime.getRuntime().maxMemory() / 4
+                : (long) (Double.parseDouble(memoryBudget) * 1024 * 1024);
+    }
+
+    /**
+     * Estimates the size of a cached row.
+     *
+     * @param row distances indexed by node id, may be null
+     * @return size in bytes, 0 for null
+     */
+    private static long bytesOf(double[] row) {
+        return row == null ? 0 : (long) row.length * Double.BYTES;
+    }
+
+    /**
+     * Estimates the size of cached distances by node.
+     *
+     * @param distances distances of the reachable nodes, may be null
+     * @return size in bytes, 0 for null
+     */
+    private static long bytesOf(Map<Integer, Double> distances) {
+        return distances == null ? 0 : distances.size() * MAP_ENTRY_BYTES;
+    }
+
+    /**
+     * Converts distances by node to a row indexed by node id.
+     *
+     * @param distances distances of the reachable nodes
+     * @return distances indexed by node id, {@link Double#POSITIVE_INFINITY} for the other ids
+     */
+    private static double[] toRow(Map<Integer, Double> distances) {
+        int maxNode = distances.keySet().stream().mapToInt(Integer::intValue).max().orElse(0);
+        double[] row = new double[maxNode + 1];
+        Arrays.fill(row, Double.POSITIVE_INFINITY);
+        distances.forEach((node, distance) -> {
+            if (node >= 0) {
+                row[node] = distance;
+            }
+        });
+        return row;
+    }
+
+    /**
+     * Converts a row indexed by node id to distances by node.
+     *
+     * @param row distances indexed by node id
+     * @return distances of the reachable nodes
+     */
+    private static Map<Integer, Double> toMap(double[] row) {
+        Map<Integer, Double> distances = new HashMap<>();
+        for (int node = 0; node < row.length; node++) {
+            if (row[node] < Double.POSITIVE_INFINITY) {
+                distances.put(node, row[node]);
+            }
+        }
+        return distances;
+    }
+}
@@ -0,0 +1,70 @@
+package org.roux.rideshare.utils;
+
+/**
+ * The {@code RoutingEngine} interface answers the road distance queries of the application
+ * over a preprocessed map, with primitive results. Rows of one-to-all distances are indexed by
+ * node id; ids past the end of a row, and ids that are not nodes, are unreachable. Engines are
+ * created by a {@link RoutingEngineProvider} and can be shared by threads.
+ *
+ * @author Venkateshprasad, Prajwal, Gaurav
+ * @version 1.0
+ */
+public interface RoutingEngine {
+    /**
+     * Computes the distances from a source node to every node.
+     *
+     * @param source source node
+     * @return distance of every node indexed by node id, {@link Double#POSITIVE_INFINITY} if unreachable
+     */
+    double[] distancesFrom(int source);
+
+    /**
+     * Computes the distance between two nodes.
+     *
+     * @param source source node
+     * @param target target node
+     * @return road distance, {@link Double#POSITIVE_INFINITY} if unreachable
+     */
+    double distance(int source, int target);
+
+    /**
+     * Computes the distance of every (source, target) pair. Engines that share work between
+     * pairs override the default, which answers the pairs one by one.
+     *
+     * @param sources source node of every pair
+     * @param targets target node of every pair
+     * @return distance of every pair, {@link Double#POSITIVE_INFINITY} if unreachable
+     * @throws IllegalArgumentException if the arrays have different lengths
+     */
+    default double[] distances(int[] sources, int[] targets) {
+        if (sources.length != targets.length) {
+            throw new IllegalArgumentException("Got " + sources.length + " sources for "
+                    + targets.length + " targets");
+        }
+        double[] distances = new double[sources.length];
+        for (int pair = 0; pair < sources.length; pair++) {
+            distances[pair] = distance(sources[pair], targets[pair]);
+        }
+        return distances;
+    }
+
+    /**
+     * Getter method for the number of nodes settled by the point-to-point queries so far
+     *
+     * @return number of settled nodes, -1 if the engine does not count them
+     */
+    default long getSettledNodeCount() {
+        return -1;
+    }
+
+    /**
+     * Reads the distance of a node from a row of {@link #distancesFrom(int)}.
+     *
+     * @param row  distances indexed by node id
+     * @param node node id
+     * @return distance of the node, {@link Double#POSITIVE_INFINITY} if it is not in the row
+     */
+    static double distanceOf(double[] row, int node) {
+        return node >= 0 && node < row.length ? row[node] : Double.POSITIVE_INFINITY;
+    }
+}
@@ -0,0 +1,45 @@
+package org.roux.rideshare.utils;
+
+import org.roux.rideshare.model.MapLayout;
+
+/**
+ * The {@code RoutingEngineProvider} interface is the service through which routing engines
+ * are plugged into the application with {@link java.util.ServiceLoader}. A provider tells
+ * {@link RoutingEngines} from which graph size its engine pays for its preprocessing and how
+ * much memory it would take, and builds the engine for a map.
+ *
+ * @author Venkateshprasad, Prajwal, Gaurav
+ * @version 1.0
+ */
+public interface RoutingEngineProvider {
+    /**
+     * Getter method for the name of the engine
+     *
+     * @return name selecting the engine in the configuration
+     */
+    String getName();
+
+    /**
+     * Getter method for the smallest graph the engine is meant for
+     *
+     * @return number of nodes from which the engine is preferred over engines meant for smaller graphs
+     */
+    int getMinimumNodeCount();
+
+    /**
+     * Estimates the memory the engine keeps for a graph.
+     *
+     * @param nodeCount number of nodes of the graph
+     * @param laneCount number of lanes of the graph
+     * @return estimated number of bytes
+     */
+    long estimateMemoryBytes(int nodeCount, int laneCount);
+
+    /**
+     * Builds the engine for a map, running its preprocessing.
+     *
+     * @param mapLayout built graph layout of the map
+     * @return engine answering the queries over the map
+     */
+    RoutingEngine create(MapLayout mapLayout);
+}
@@ -0,0 +1,118 @@
+package org.roux.rideshare.utils;
+
+import org.roux.rideshare.model.Lane;
+import org.roux.rideshare.model.MapLayout;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.stream.Collectors;
+
+/**
+ * The {@code RoutingEngines} class loads the {@link RoutingEngineProvider} services and picks
+ * the routing engine of a map. An engine named by the {@code rideshare.routing.engine} system
+ * property is always used. Otherwise, among the engines whose memory estimate fits the budget
+ * of the {@code rideshare.routing.memoryMegabytes} property, a quarter of the maximum heap by
+ * default, the one meant for the largest graphs not larger than the map is picked. If no
+ * engine fits the budget, the one needing the least memory is picked.
+ *
+ * @author Venkateshprasad, Prajwal, Gaurav
+ * @version 1.0
+ */
+public final class RoutingEngines {
+    /**
+     * System property naming the routing engine
+     */
+    public static final String ENGINE_PROPERTY = "rideshare.routing.engine";
+    /**
+     * System property giving the memory budget of the routing engine, in megabytes
+     */
+    public static final String MEMORY_BUDGET_PROPERTY = "rideshare.routing.memoryMegabytes";
+    private static final System.Logger logger = System.getLogger(RoutingEngines.class.getName());
+
+    /**
+     * Constructor is private as the class only provides static methods.
+     */
+    private RoutingEngines() {
+    }
+
+    /**
+     * Loads the registered providers.
+     *
+     * @return providers found by {@link ServiceLoader}, by name
+     */
+    public static List<RoutingEngineProvider> providers() {
+        return ServiceLoader.load(RoutingEngineProvider.class).stream()
+                .map(ServiceLoader.Provider::get)
+                .sorted(Comparator.comparing(RoutingEngineProvider::getName))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Builds the engine of a map as configured by the system properties.
+     *
+     * @param mapLayout built graph layout of the map
+     * @return engine over the map
+     * @throws IllegalArgumentException if the configured engine is not registered
+     */
+    public static RoutingEngine select(MapLayout mapLayout) {
+        String memoryBudget = System.getProperty(MEMORY_BUDGET_PROPERTY);
+        long memoryBudgetBytes = memoryBudget == null || memoryBudget.isBlank()
+                ? Runtime.getRuntime().maxMemory() / 4
+                : (long) (Double.parseDouble(memoryBudget) * 1024 * 1024);
+        int nodeCount = mapLayout.getVerticesAdjList().size();
+        int laneCount = mapLayout.getVerticesAdjList().values().stream().mapToInt(List::size).sum();
+        RoutingEngineProvider provider = choose(providers(), nodeCount, laneCount,
+                System.getProperty(ENGINE_PROPERTY), memoryBudgetBytes);
+        logger.log(System.Logger.Level.INFO, "Routing " + nodeCount + " nodes with the " + provider.getName()
+                + " engine");
+        return provider.create(mapLayout);
+    }
+
+    /**
+     * Chooses the provider of a graph.
+     *
+     * @param providers         registered providers
+     * @param nodeCount         number of nodes of the graph
+     * @param laneCount         number of lanes of the graph
+     * @param name              name of the configured engine, null or blank to choose by size and memory
+     * @param memoryBudgetBytes memory the engine may keep, in bytes
+     * @return chosen provider
+     * @throws IllegalArgumentException if the named engine is not registered, or no engine is
+     */
+    public static RoutingEngineProvider choose(List<RoutingEngineProvider> providers, int nodeCount, int laneCount,
+                                               String name, long memoryBudgetBytes) {
+        if (name != null && !name.isBlank()) {
+            return providers.stream()
+                    .filter(provider -> provider.getName().equals(name.trim()))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown routing engine " + name
+                            + ", registered: " + providers.stream().map(RoutingEngineProvider::getName).toList()));
+        }
+        return providers.stream()
+                .filter(provider -> provider.getMinimumNodeCount() <= nodeCount
+                        && provider.estimateMemoryBytes(nodeCount, laneCount) <= memoryBudgetBytes)
+                .max(Comparator.comparingInt(RoutingEngineProvider::getMinimumNodeCount))
+                .or(() -> providers.stream()
+                        .min(Comparator.comparingLong(provider -> provider.estimateMemoryBytes(nodeCount, laneCount))))
+                .orElseThrow(() -> new IllegalArgumentException("No routing engine registered"));
+    }
+
+    /**
+     * Finds the largest node id of a map, counting the targets of its lanes.
+     *
+     * @param mapLayout graph layout of the map
+     * @return largest node id, 0 if the map is empty
+     */
+    static int maxNodeId(MapLayout mapLayout) {
+        int maxNode = 0;
+        for (Map.Entry<Integer, List<Lane>> entry : mapLayout.getVerticesAdjList().entrySet()) {
+            maxNode = Math.max(maxNode, entry.getKey());
+            for (Lane lane : entry.getValue()) {
+                maxNode = Math.max(maxNode, lane.getTarget());
+            }
+        }
+        return maxNode;
+    }
+}
@@ -0,0 +1,380 @@
+package org.roux.rideshare.utils;
+
+import org.roux.rideshare.model.Cab;
+import org.roux.rideshare.model.CabPool;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The {@code TripJournal} class is an append-only binary journal of the dispatch events
+ * of a {@link CabPool}. Events are handed to a background writer thread through a bounded
+ * queue, so the booking path never touches the disk. The writer appends fixed-size records
+ * to a memory-mapped {@link FileChannel} and forces them to disk once per drained batch.
+ * A journal can be replayed to rebuild the state of a {@link CabPool} after a restart.
+ *
+ * <p>The booking path never blocks on the journal: events are dropped and counted when the
+ * queue is full, when the writer has failed, or after the journal is closed.
+ *
+ * <p>Each record is {@value #RECORD_SIZE} bytes: event type (1), share flag (1), padding (2),
+ * cab id (4), source (4), destination (4), timestamp in milliseconds (8) and value (8).
+ * The file is grown in zero-filled segments, so a record with type 0 marks the end of the log.
+ *
+ * @author Venkateshprasad, Prajwal, Gaurav
+ * @version 1.0
+ */
+public class TripJournal implements AutoCloseable {
+    static final int RECORD_SIZE = 32;
+    private static final int SEGMENT_SIZE = RECORD_SIZE * 64 * 1024;
+    private static final int QUEUE_CAPACITY = 16 * 1024;
+    private static final int MAX_BATCH = 1024;
+    private static final System.Logger logger = System.getLogger(TripJournal.class.getName());
+
+    private final FileChannel channel;
+    private final BlockingQueue<Event> pendingEvents = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final Thread writer;
+    private final AtomicLong droppedEvents = new AtomicLong();
+    private MappedByteBuffer segment;
+    private long segmentStart;
+    private volatile boolean closed;
+    private volatile boolean failed;
+
+    /**
+     * Types of the events recorded in the journal
+     */
+    public enum EventType {
+        BOOK, JOIN_SHARE, ROUTE_ASSIGNED, DROP_OFF, FARE;
+
+        private static final EventType[] values = values();
+
+        /**
+         * Code of the event type in the binary record. Code 0 is reserved for the end of the log.
+         *
+         * @return code of the event type
+         */
+        byte code() {
+            return (byte) (ordinal() + 1);
+        }
+
+        /**
+         * Looks up the event type of a binary record code.
+         *
+         * @param code code of the event type
+         * @return event type, or null for the end of the log
+         */
+        static EventType fromCode(byte code) {
+            return code <= 0 || code > values.length ? null : values[code - 1];
+        }
+    }
+
+    /**
+     * Callback receiving the replayed events of a journal in the order they were appended.
+     */
+    @FunctionalInterface
+    public interface EventVisitor {
+        /**
+         * Visits an event of the journal.
+         *
+         * @param type        type of the event
+         * @param cabId       id of the cab
+         * @param source      source of the passenger, 0 if not applicable
+         * @param destination destination of the passenger, 0 if not applicable
+         * @param shareRide   sharing preference of the passenger
+         * @param timestamp   time of the event in milliseconds since the epoch
+         * @param value       distance of a route or amount of a fare, 0 if not applicable
+         */
+        void visit(EventType type, int cabId, int source, int destination, boolean shareRide,
+                   long timestamp, double value);
+    }
+
+    /**
+     * Record to hold an event between the booking thread and the writer thread
+     */
+    private record Event(EventType type, int cabId, int source, int destination, boolean shareRide,
+                         long timestamp, double value) {
+    }
+
+    /**
+     * Opens the journal at the given path for appending, creating it if needed. New events
+     * are appended after the last event already present in the file.
+     *
+     * @param journalPath path of the journal file
+     * @throws IOException if the file cannot be opened or mapped
+     */
+    public TripJournal(Path journalPath) throws IOException {
+        this.channel = FileChannel.open(journalPath, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long end = findEnd(channel);
+        mapSegment(end - end % SEGMENT_SIZE);
+        segment.position((int) (end % SEGMENT_SIZE));
+        this.writer = new Thread(this::writeLoop, "trip-journal-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Appends a booking event. The first passenger of a cab is recorded as a booking,
+     * later passengers as joining a shared ride.
+     *
+     * @param cab         booked cab
+     * @param source      source node of the passenger
+     * @param destination destination node of the passenger
+     * @param shareRide   preference of sharing ride
+     */
+    public void recordBooking(Cab cab, int source, int destination, boolean shareRide) {
+        EventType type = cab.getPassengerCount() > 1 ? EventType.JOIN_SHARE : EventType.BOOK;
+        append(new Event(type, cab.getId(), source, destination, shareRide, System.currentTimeMillis(), 0));
+    }
+
+    /**
+     * Appends a route assignment event.
+     *
+     * @param cab      cab of the route
+     * @param distance total distance of the route
+     */
+    public void recordRoute(Cab cab, double distance) {
+        append(new Event(EventType.ROUTE_ASSIGNED, cab.getId(), 0, 0, false,
+                System.currentTimeMillis(), distance));
+    }
+
+    /**
+     * Appends a fare event.
+     *
+     * @param cab  cab of the ride
+     * @param fare fare of the ride
+     */
+    public void recordFare(Cab cab, double fare) {
+        append(new Event(EventType.FARE, cab.getId(), 0, 0, false, System.currentTimeMillis(), fare));
+    }
+
+    /**
+     * Appends a drop-off event.
+     *
+     * @param cab dropped off cab
+     */
+    public void recordDropOff(Cab cab) {
+        append(new Event(EventType.DROP_OFF, cab.getId(), 0, 0, false, System.currentTimeMillis(), 0));
+    }
+
+    /**
+     * Hands an event to the writer thread without blocking. The event is dropped if the
+     * journal is closed or failed, or if the writer has fallen a full queue behind; the
+     * first dropped event is logged.
+     *
+     * @param event event to append
+     */
+    private void append(Event event) {
+        if (closed || failed || !pendingEvents.offer(event)) {
+            if (droppedEvents.getAndIncrement() == 0) {
+                logger.log(System.Logger.Level.WARNING, "Trip journal "
+                        + (closed ? "closed" : failed ? "failed" : "queue full") + ", dropping events");
+            }
+        }
+    }
+
+    /**
+     * Drains the queue in batches, writes the records to the mapped segment and forces
+     * each batch to disk, until the journal is closed and the queue is empty.
+     */
+    private void writeLoop() {
+        List<Event> batch = new ArrayList<>(MAX_BATCH);
+        try {
+            while (!closed || !pendingEvents.isEmpty()) {
+                Event first = pendingEvents.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                pendingEvents.drainTo(batch, MAX_BATCH - 1);
+                for (Event event : batch) {
+                    write(event);
+                }
+                segment.force();
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            failed = true;
+            droppedEvents.addAndGet(batch.size() + pendingEvents.size());
+            pendingEvents.clear();
+            logger.log(System.Logger.Level.ERROR, "Trip journal write failed", e);
+        }
+    }
+
+    /**
+     * Writes a single record, moving to the next segment when the current one is full.
+     *
+     * @param event event to write
+     * @throws IOException if the next segment cannot be mapped
+     */
+    private void write(Event event) throws IOException {
+        if (segment.remaining() < RECORD_SIZE) {
+            segment.force();
+            mapSegment(segmentStart + SEGMENT_SIZE);
+        }
+        segment.put(event.type().code());
+        segment.put((byte) (event.shareRide() ? 1 : 0));
+        segment.putShort((short) 0);
+        segment.putInt(event.cabId());
+        segment.putInt(event.source());
+        segment.putInt(event.destination());
+        segment.putLong(event.timestamp());
+        segment.putDouble(event.value());
+    }
+
+    /**
+     * Maps a segment of the file for writing, growing the file as needed.
+     *
+     * @param start offset of the segment in the file
+     * @throws IOException if the segment cannot be mapped
+     */
+    private void mapSegment(long start) throws IOException {
+        segmentStart = start;
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, start, SEGMENT_SIZE);
+    }
+
+    /**
+     * Finds the offset right after the last record of an existing journal.
+     *
+     * @param channel channel of the journal file
+     * @return offset where the next record is appended
+     * @throws IOException if the file cannot be read
+     */
+    private static long findEnd(FileChannel channel) throws IOException {
+        long size = channel.size() - channel.size() % RECORD_SIZE;
+        ByteBuffer type = ByteBuffer.allocate(1);
+        long low = 0;
+        long high = size / RECORD_SIZE;
+        // Records are written contiguously, so the first empty record is found by binary search.
+        while (low < high) {
+            long middle = (low + high) >>> 1;
+            type.clear();
+            channel.read(type, middle * RECORD_SIZE);
+            if (type.get(0) == 0) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low * RECORD_SIZE;
+    }
+
+    /**
+     * Replays all events of a journal file into a visitor. The file is memory-mapped
+     * read-only and decoded without allocating per event.
+     *
+     * @param journalPath path of the journal file
+     * @param visitor     visitor receiving the events
+     * @return number of replayed events
+     * @throws IOException if the file cannot be read
+     */
+    public static long replay(Path journalPath, EventVisitor visitor) throws IOException {
+        if (!Files.exists(journalPath)) {
+            return 0;
+        }
+        long replayedEvents = 0;
+        try (FileChannel readChannel = FileChannel.open(journalPath, StandardOpenOption.READ)) {
+            long size = readChannel.size() - readChannel.size() % RECORD_SIZE;
+            for (long start = 0; start < size; start += SEGMENT_SIZE) {
+                MappedByteBuffer buffer = readChannel.map(FileChannel.MapMode.READ_ONLY, start,
+                        Math.min(SEGMENT_SIZE, size - start));
+                while (buffer.remaining() >= RECORD_SIZE) {
+                    EventType type = EventType.fromCode(buffer.get());
+                    if (type == null) {
+                        return replayedEvents;
+                    }
+                    boolean shareRide = buffer.get() != 0;
+                    buffer.getShort();
+                    int cabId = buffer.getInt();
+                    int source = buffer.getInt();
+                    int destination = buffer.getInt();
+                    long timestamp = buffer.getLong();
+                    double value = buffer.getDouble();
+                    visitor.visit(type, cabId, source, destination, shareRide, timestamp, value);
+                    replayedEvents++;
+                }
+            }
+        }
+        return replayedEvents;
+    }
+
+    /**
+     * Rebuilds the bookings of a {@link CabPool} from a journal file. The pool should not
+     * have a journal attached while replaying, so the replayed events are not appended again.
+     * Events of cabs the pool does not have, e.g. from a journal written by a larger fleet,
+     * and bookings of cabs that are already full are skipped, counted and logged once.
+     *
+     * @param journalPath path of the journal file
+     * @param cabPool     cab pool to rebuild
+     * @return number of replayed events, skipped ones included
+     * @throws IOException if the file cannot be read
+     */
+    public static long replay(Path journalPath, CabPool cabPool) throws IOException {
+        long[] skippedEvents = new long[1];
+        long replayedEvents = replay(journalPath, (type, cabId, source, destination, shareRide, timestamp, value) -> {
+            boolean restored = switch (type) {
+                case BOOK, JOIN_SHARE -> cabPool.restoreBooking(cabId, source, destination, shareRide);
+                case DROP_OFF -> cabPool.restoreDropOff(cabId);
+                default -> true;
+            };
+            if (!restored) {
+                skippedEvents[0]++;
+            }
+        });
+        if (skippedEvents[0] > 0) {
+            logger.log(System.Logger.Level.WARNING, "Trip journal " + journalPath + ": skipped " + skippedEvents[0]
+                    + " events of unknown or full cabs");
+        }
+        return replayedEvents;
+    }
+
+    /**
+     * Getter method for the number of dropped events
+     *
+     * @return number of events that were not written to the journal
+     */
+    public long getDroppedEventCount() {
+        return droppedEvents.get();
+    }
+
+    /**
+     * Getter method for failed attribute
+     *
+     * @return true if the writer stopped on a write error, else false
+     */
+    public boolean isFailed() {
+        return failed;
+    }
+
+    /**
+     * Flushes the pending events, forces them to disk and closes the journal.
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        segment.force();
+        channel.close();
+    }
+}
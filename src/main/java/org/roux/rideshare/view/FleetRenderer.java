@@ -0,0 +1,202 @@
+package org.roux.rideshare.view;
+
+import javafx.animation.AnimationTimer;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.transform.Affine;
+import org.roux.rideshare.model.FleetStore;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * The {@code FleetRenderer} class animates all the cabs of a {@link FleetStore} with a single
+ * {@link AnimationTimer}. Each ride is a polyline precomputed at booking time; on every pulse
+ * the renderer advances the position of every moving cab along its polyline, writes it to the
+ * {@link FleetStore} and draws all the cab sprites on one {@link Canvas} in a single pass. The
+ * car sprite is loaded once and shared by all the cabs.
+ *
+ * @author Venkateshprasad, Prajwal, Gaurav
+ * @version 1.0
+ */
+public class FleetRenderer {
+    private static final String carImagePath = "file:src/main/resources/org/roux/rideshare/Designer.png";
+    private static final double carSize = 35;
+    private static Image carImage;
+
+    private final FleetStore fleet;
+    private final Canvas canvas;
+    private final Supplier<Affine> viewTransform;
+    private final double[][] routesX;
+    private final double[][] routesY;
+    private final double[][] routeLengths;
+    private final long[] startTimes;
+    private final long[] durations;
+    private final Runnable[] onFinished;
+    private final boolean[] moving;
+    private final boolean[] visible;
+    private final List<Runnable> finishedRides = new ArrayList<>();
+    private final AnimationTimer timer;
+    private int movingCount;
+    private boolean running;
+
+    /**
+     * Constructs a new {@code FleetRenderer} drawing the cabs of the fleet on a canvas.
+     *
+     * @param fleet         {@link FleetStore} of the animated cabs
+     * @param canvas        {@link Canvas} on top of the map receiving the sprites
+     * @param viewTransform supplies the transform from map to canvas coordinates
+     */
+    public FleetRenderer(FleetStore fleet, Canvas canvas, Supplier<Affine> viewTransform) {
+        this.fleet = fleet;
+        this.canvas = canvas;
+        this.viewTransform = viewTransform;
+        int size = fleet.size();
+        this.routesX = new double[size][];
+        this.routesY = new double[size][];
+        this.routeLengths = new double[size][];
+        this.startTimes = new long[size];
+        this.durations = new long[size];
+        this.onFinished = new Runnable[size];
+        this.moving = new boolean[size];
+        this.visible = new boolean[size];
+        this.timer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                pulse(now);
+            }
+        };
+    }
+
+    /**
+     * Returns the car sprite, loading it on first use.
+     *
+     * @return {@link Image} of a car
+     */
+    private static Image carImage() {
+        if (carImage == null) {
+            carImage = new Image(carImagePath);
+        }
+        return carImage;
+    }
+
+    /**
+     * Starts moving a cab along a route from its first point, replacing the ride the cab
+     * was on, if any.
+     *
+     * @param cabId           id of the cab
+     * @param routeX          x coordinates of the route points
+     * @param routeY          y coordinates of the route points
+     * @param durationSeconds duration of the ride in seconds
+     * @param onFinished      action run once the cab reaches the end of the route
+     */
+    public void startRide(int cabId, double[] routeX, double[] routeY, double durationSeconds,
+                          Runnable onFinished) {
+        double[] lengths = new double[routeX.length];
+        for (int i = 1; i < routeX.length; i++) {
+            lengths[i] = lengths[i - 1] + Math.hypot(routeX[i] - routeX[i - 1], routeY[i] - routeY[i - 1]);
+        }
+        routesX[cabId] = routeX;
+        routesY[cabId] = routeY;
+        routeLengths[cabId] = lengths;
+        startTimes[cabId] = System.nanoTime();
+        durations[cabId] = Math.max(1, (long) (durationSeconds * 1e9));
+        this.onFinished[cabId] = onFinished;
+        if (!moving[cabId]) {
+            moving[cabId] = true;
+            movingCount++;
+        }
+        visible[cabId] = true;
+        if (routeX.length > 0) {
+            fleet.setPosition(cabId, routeX[0], routeY[0]);
+        }
+        if (!running) {
+            running = true;
+            timer.start();
+        }
+    }
+
+    /**
+     * Shows a cab standing at its current position in the {@link FleetStore}.
+     *
+     * @param cabId id of the cab
+     */
+    public void park(int cabId) {
+        visible[cabId] = true;
+    }
+
+    /**
+     * Advances every moving cab to its position at the given time, draws the fleet and runs
+     * the actions of the rides that ended.
+     *
+     * @param now time of the pulse in nanoseconds
+     */
+    private void pulse(long now) {
+        for (int cab = 0; cab < moving.length; cab++) {
+            if (moving[cab]) {
+                double progress = Math.min(1.0, (double) (now - startTimes[cab]) / durations[cab]);
+                moveAlongRoute(cab, progress);
+                if (progress >= 1.0) {
+                    moving[cab] = false;
+                    movingCount--;
+                    finishedRides.add(onFinished[cab]);
+                    onFinished[cab] = null;
+                }
+            }
+        }
+        draw();
+        for (Runnable finishedRide : finishedRides) {
+            finishedRide.run();
+        }
+        finishedRides.clear();
+        if (movingCount == 0) {
+            timer.stop();
+            running = false;
+        }
+    }
+
+    /**
+     * Places a cab at a fraction of the length of its route.
+     *
+     * @param cab      id of the cab
+     * @param progress fraction of the route travelled, between 0 and 1
+     */
+    private void moveAlongRoute(int cab, double progress) {
+        double[] lengths = routeLengths[cab];
+        double[] routeX = routesX[cab];
+        double[] routeY = routesY[cab];
+        if (lengths.length < 2 || lengths[lengths.length - 1] == 0) {
+            return;
+        }
+        double travelled = progress * lengths[lengths.length - 1];
+        int segment = Arrays.binarySearch(lengths, travelled);
+        if (segment < 0) {
+            segment = -segment - 2;
+        }
+        segment = Math.max(0, Math.min(segment, lengths.length - 2));
+        double segmentLength = lengths[segment + 1] - lengths[segment];
+        double fraction = segmentLength == 0 ? 0 : (travelled - lengths[segment]) / segmentLength;
+        fleet.setPosition(cab, routeX[segment] + fraction * (routeX[segment + 1] - routeX[segment]),
+                routeY[segment] + fraction * (routeY[segment + 1] - routeY[segment]));
+    }
+
+    /**
+     * Draws the sprites of all the visible cabs in one pass.
+     */
+    public void draw() {
+        GraphicsContext graphics = canvas.getGraphicsContext2D();
+        graphics.setTransform(new Affine());
+        graphics.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        graphics.setTransform(viewTransform.get());
+        Image sprite = carImage();
+        for (int cab = 0; cab < visible.length; cab++) {
+            if (visible[cab]) {
+                graphics.drawImage(sprite, fleet.getPositionX(cab) - carSize / 2,
+                        fleet.getPositionY(cab) - carSize / 2, carSize, carSize);
+            }
+        }
+    }
+}
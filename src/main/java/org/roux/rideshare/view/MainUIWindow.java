@@ -4,8 +4,14 @@ import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
+import javafx.stage.WindowEvent;
 import org.roux.rideshare.model.MapLayout;
-import org.roux.rideshare.utils.DijkstraAlgorithm;
+import org.roux.rideshare.utils.GraphSnapshot;
+import org.roux.rideshare.utils.LandmarkIndex;
+import org.roux.rideshare.utils.RouteCache;
+
+import java.io.IOException;
+import java.nio.file.Path;
 
 /**
  * The {@code MainUIWindow} class handles the GUI for the application. It initializes a map layout
@@ -15,20 +21,81 @@ import org.roux.rideshare.utils.DijkstraAlgorithm;
  * @version 1.0
  */
 public class MainUIWindow {
+    private static final String snapshotProperty = "rideshare.snapshot";
+    private static final int landmarkCount = 4;
+    private static final System.Logger logger = System.getLogger(MainUIWindow.class.getName());
     private final Stage rideShare;
     private final MapLayout mapLayout;
-    private final DijkstraAlgorithm dAlgo;
+    private final RouteCache routeCache;
+    private LandmarkIndex landmarks;
 
     /**
-     * Constructs a new {@code MainUIWindow} with specified {@link Stage}.
+     * Constructs a new {@code MainUIWindow} with specified {@link Stage}. If the
+     * {@code rideshare.snapshot} system property names a valid {@link GraphSnapshot}, the graph
+     * and the route cache are restored from it, along with the landmark index of the map if
+     * the snapshot has one, otherwise the graph is generated from scratch.
+     * The routing engine of the cache is picked once the graph is built, as configured by the
+     * {@code rideshare.routing.engine} and {@code rideshare.routing.memoryMegabytes} system
+     * properties.
      *
      * @param rideShare stage window
      */
     public MainUIWindow(Stage rideShare) {
         this.rideShare = rideShare;
         this.mapLayout = new MapLayout();
-        this.mapLayout.generateGraphStructure();
-        this.dAlgo = new DijkstraAlgorithm(mapLayout);
+        this.routeCache = new RouteCache(mapLayout);
+        if (!warmStart()) {
+            this.mapLayout.generateGraphStructure();
+        }
+    }
+
+    /**
+     * Restores the graph, the route cache and the landmark index from the configured
+     * snapshot, if any.
+     *
+     * @return true if the snapshot was restored, else false
+     */
+    private boolean warmStart() {
+        Path snapshotPath = snapshotPath();
+        if (snapshotPath == null) {
+            return false;
+        }
+        try {
+            GraphSnapshot.Restored restored = GraphSnapshot.load(snapshotPath, mapLayout, routeCache);
+            if (restored == null) {
+                return false;
+            }
+            landmarks = restored.landmarks();
+            return true;
+        } catch (IOException e) {
+            logger.log(System.Logger.Level.WARNING, "Snapshot " + snapshotPath + " unreadable, starting cold", e);
+            return false;
+        }
+    }
+
+    /**
+     * Saves the graph and the warm route cache to the configured snapshot, if any.
+     */
+    private void saveSnapshot() {
+        Path snapshotPath = snapshotPath();
+        if (snapshotPath == null) {
+            return;
+        }
+        try {
+            GraphSnapshot.save(snapshotPath, mapLayout, routeCache, landmarks);
+        } catch (IOException e) {
+            logger.log(System.Logger.Level.WARNING, "Snapshot " + snapshotPath + " could not be saved", e);
+        }
+    }
+
+    /**
+     * Reads the snapshot path from the {@code rideshare.snapshot} system property.
+     *
+     * @return path of the snapshot file, or null if snapshots are disabled
+     */
+    private static Path snapshotPath() {
+        String snapshotPath = System.getProperty(snapshotProperty);
+        return snapshotPath == null || snapshotPath.isBlank() ? null : Path.of(snapshotPath);
     }
 
     /**
@@ -39,18 +106,26 @@ public class MainUIWindow {
         VBox layoutMainWindow = new VBox(15); //arranges components in vertical stack with spacing of 10 pixels
         Button startButton = new Button("Start Application!!!");
         startButton.setOnAction(e -> showMap());
-        layoutMainWindow.getChildren().add(startButton);
+        Button stressButton = new Button("Stress Test");
+        stressButton.setOnAction(e -> new StressDashboard(mapLayout).display());
+        layoutMainWindow.getChildren().addAll(startButton, stressButton);
         Scene mainWindowContents = new Scene(layoutMainWindow, 300, 200); //contains the physical contents of a JavaFX application's window
         rideShare.setScene(mainWindowContents);
+        rideShare.addEventHandler(WindowEvent.WINDOW_HIDDEN, e -> saveSnapshot());
         rideShare.show();
     }
 
     /**
      * Display the map(graph) by calling the visualization method of {@link MapWindow}.
-     * The showMap method is triggered by the button click action in the main window.
+     * The showMap method is triggered by the button click action in the main window. The
+     * landmark index of the map is built for the first window, unless it was restored, and
+     * shared by the next ones.
      */
     private void showMap() {
-        MapWindow mapWindow = new MapWindow(mapLayout, dAlgo);
+        if (landmarks == null) {
+            landmarks = new LandmarkIndex(mapLayout, landmarkCount);
+        }
+        MapWindow mapWindow = new MapWindow(mapLayout, routeCache, landmarks);
         mapWindow.visualize(rideShare);
     }
 }
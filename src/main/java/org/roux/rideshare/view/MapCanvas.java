@@ -0,0 +1,528 @@
+package org.roux.rideshare.view;
+
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.scene.transform.Affine;
+import org.roux.rideshare.model.Lane;
+import org.roux.rideshare.model.MapLayout;
+
+import java.util.*;
+import java.util.function.IntConsumer;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * The {@code MapCanvas} class draws the map graph on a single {@link Canvas} instead of one
+ * scene graph node per vertex and edge. Only the part of the map inside the viewport is drawn,
+ * looked up through a uniform grid over the map, and details too small to be seen at the
+ * current zoom level are skipped. The map can be zoomed with the mouse wheel and panned by
+ * dragging. Route overlays are kept per cab and removed when the trip ends.
+ *
+ * <p>Overlay canvases on top of the map, such as the one of the {@link FleetRenderer}, are
+ * kept at the size of the map and notified when the zoom or pan of the map changes.
+ *
+ * @author Venkateshprasad, Prajwal, Gaurav
+ * @version 1.0
+ */
+public class MapCanvas {
+    private static final double minScale = 0.01;
+    private static final double maxScale = 50;
+    private static final double zoomFactor = 1.15;
+    private static final double minNodePixels = 1.5;
+    private static final double minEdgePixels = 1.0;
+    private static final double routeWidth = 3;
+    private static final Color nodeColor = Color.BLUE;
+    private static final Color edgeColor = Color.GRAY;
+
+    private final MapLayout mapLayout;
+    private final double nodeSize;
+    private final Pane mapPane = new Pane();
+    private final Canvas canvas = new Canvas();
+    private final List<Runnable> viewListeners = new ArrayList<>();
+    private final int[] nodeIds;
+    private final int[] edgeSources;
+    private final int[] edgeTargets;
+    private final SpatialGrid nodeGrid;
+    private final SpatialGrid edgeGrid;
+    private final Map<Integer, Color> nodeColors = new HashMap<>();
+    private final Map<Integer, RouteOverlay> routeOverlays = new LinkedHashMap<>();
+    private double scale = 1;
+    private double offsetX;
+    private double offsetY;
+    private double pressX;
+    private double pressY;
+    private IntConsumer nodeClickHandler = node -> {
+    };
+
+    /**
+     * Record to maintain a route drawn on top of the map
+     *
+     * @param path  nodes of the route
+     * @param color {@link Color} of the route
+     */
+    private record RouteOverlay(int[] path, Color color) {
+    }
+
+    /**
+     * Constructs a new {@code MapCanvas} for the specified {@link MapLayout}, whose nodes must
+     * already be laid out. Each undirected edge of the layout is drawn once.
+     *
+     * @param mapLayout layout of the map
+     * @param nodeSize  radius of a node in map coordinates
+     */
+    public MapCanvas(MapLayout mapLayout, double nodeSize) {
+        this.mapLayout = mapLayout;
+        this.nodeSize = nodeSize;
+        Map<Integer, List<Lane>> adjList = mapLayout.getVerticesAdjList();
+        this.nodeIds = adjList.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+        int edgeCount = 0;
+        for (Map.Entry<Integer, List<Lane>> entry : adjList.entrySet()) {
+            for (Lane lane : entry.getValue()) {
+                if (isDrawnDirection(entry.getKey(), lane.getTarget())) {
+                    edgeCount++;
+                }
+            }
+        }
+        this.edgeSources = new int[edgeCount];
+        this.edgeTargets = new int[edgeCount];
+        int edge = 0;
+        for (Map.Entry<Integer, List<Lane>> entry : adjList.entrySet()) {
+            for (Lane lane : entry.getValue()) {
+                if (isDrawnDirection(entry.getKey(), lane.getTarget())) {
+                    edgeSources[edge] = entry.getKey();
+                    edgeTargets[edge] = lane.getTarget();
+                    edge++;
+                }
+            }
+        }
+
+        this.nodeGrid = new SpatialGrid(nodeIds.length, i -> mapLayout.getNodeX(nodeIds[i]),
+                i -> mapLayout.getNodeY(nodeIds[i]), i -> mapLayout.getNodeX(nodeIds[i]),
+                i -> mapLayout.getNodeY(nodeIds[i]));
+        this.edgeGrid = new SpatialGrid(edgeCount, i -> mapLayout.getNodeX(edgeSources[i]),
+                i -> mapLayout.getNodeY(edgeSources[i]), i -> mapLayout.getNodeX(edgeTargets[i]),
+                i -> mapLayout.getNodeY(edgeTargets[i]));
+
+        canvas.widthProperty().bind(mapPane.widthProperty());
+        canvas.heightProperty().bind(mapPane.heightProperty());
+        canvas.widthProperty().addListener((observable, oldValue, newValue) -> updateView());
+        canvas.heightProperty().addListener((observable, oldValue, newValue) -> updateView());
+        canvas.setOnScroll(this::handleScroll);
+        canvas.setOnMousePressed(this::handlePress);
+        canvas.setOnMouseDragged(this::handleDrag);
+        canvas.setOnMouseClicked(this::handleClick);
+        mapPane.getChildren().add(canvas);
+    }
+
+    /**
+     * Checks if an edge is drawn in this direction. Edges present in both directions are
+     * only drawn from the lower node id.
+     *
+     * @param source source node of the edge
+     * @param target target node of the edge
+     * @return true if the edge is drawn from source to target, else false
+     */
+    private boolean isDrawnDirection(int source, int target) {
+        return source < target || mapLayout.getVerticesAdjList()
+                .getOrDefault(target, Collections.emptyList()).stream()
+                .noneMatch(lane -> lane.getTarget() == source);
+    }
+
+    /**
+     * Redraws the visible part of the map, its selected nodes and its route overlays.
+     */
+    public void redraw() {
+        GraphicsContext graphics = canvas.getGraphicsContext2D();
+        double width = canvas.getWidth();
+        double height = canvas.getHeight();
+        graphics.clearRect(0, 0, width, height);
+        double minX = toMapX(0) - nodeSize;
+        double minY = toMapY(0) - nodeSize;
+        double maxX = toMapX(width) + nodeSize;
+        double maxY = toMapY(height) + nodeSize;
+
+        graphics.setStroke(edgeColor);
+        graphics.setLineWidth(1);
+        graphics.beginPath();
+        edgeGrid.forEachIn(minX, minY, maxX, maxY, edge -> {
+            double startX = toScreenX(mapLayout.getNodeX(edgeSources[edge]));
+            double startY = toScreenY(mapLayout.getNodeY(edgeSources[edge]));
+            double endX = toScreenX(mapLayout.getNodeX(edgeTargets[edge]));
+            double endY = toScreenY(mapLayout.getNodeY(edgeTargets[edge]));
+            if (Math.abs(endX - startX) + Math.abs(endY - startY) >= minEdgePixels) {
+                graphics.moveTo(startX, startY);
+                graphics.lineTo(endX, endY);
+            }
+        });
+        graphics.stroke();
+
+        double radius = nodeSize * scale;
+        if (radius >= minNodePixels) {
+            nodeGrid.forEachIn(minX, minY, maxX, maxY, index -> {
+                int node = nodeIds[index];
+                graphics.setFill(nodeColors.getOrDefault(node, nodeColor));
+                graphics.fillOval(toScreenX(mapLayout.getNodeX(node)) - radius,
+                        toScreenY(mapLayout.getNodeY(node)) - radius, 2 * radius, 2 * radius);
+            });
+        }
+
+        graphics.setLineWidth(routeWidth);
+        for (RouteOverlay overlay : routeOverlays.values()) {
+            graphics.setStroke(overlay.color());
+            graphics.beginPath();
+            int[] path = overlay.path();
+            for (int i = 0; i < path.length; i++) {
+                double x = toScreenX(mapLayout.getNodeX(path[i]));
+                double y = toScreenY(mapLayout.getNodeY(path[i]));
+                if (i == 0) {
+                    graphics.moveTo(x, y);
+                } else {
+                    graphics.lineTo(x, y);
+                }
+            }
+            graphics.stroke();
+        }
+    }
+
+    /**
+     * Shows the route of a cab on top of the map, replacing its previous route if any.
+     *
+     * @param cabId id of the cab
+     * @param path  nodes of the route
+     * @param color {@link Color} of the route
+     */
+    public void setRouteOverlay(int cabId, List<Integer> path, Color color) {
+        routeOverlays.put(cabId, new RouteOverlay(path.stream().mapToInt(Integer::intValue).toArray(), color));
+        redraw();
+    }
+
+    /**
+     * Removes the route of a cab from the map.
+     *
+     * @param cabId id of the cab
+     */
+    public void removeRouteOverlay(int cabId) {
+        if (routeOverlays.remove(cabId) != null) {
+            redraw();
+        }
+    }
+
+    /**
+     * Changes the fill color of a node.
+     *
+     * @param node  node of the graph
+     * @param color {@link Color} of the node
+     */
+    public void setNodeColor(int node, Color color) {
+        nodeColors.put(node, color);
+        redraw();
+    }
+
+    /**
+     * Setter method for nodeClickHandler attribute
+     *
+     * @param nodeClickHandler handler receiving the node clicked by the user
+     */
+    public void setOnNodeClicked(IntConsumer nodeClickHandler) {
+        this.nodeClickHandler = nodeClickHandler;
+    }
+
+    /**
+     * Getter method for mapPane attribute
+     *
+     * @return {@link Pane} holding the map canvas and its overlays
+     */
+    public Pane getMapPane() {
+        return mapPane;
+    }
+
+    /**
+     * Creates a transparent canvas on top of the map, kept at the size of the map.
+     *
+     * @param redraw action redrawing the overlay, run whenever the view of the map changes
+     * @return {@link Canvas} of the overlay
+     */
+    public Canvas createOverlay(Runnable redraw) {
+        Canvas overlay = new Canvas();
+        overlay.setMouseTransparent(true);
+        overlay.widthProperty().bind(mapPane.widthProperty());
+        overlay.heightProperty().bind(mapPane.heightProperty());
+        mapPane.getChildren().add(overlay);
+        viewListeners.add(redraw);
+        return overlay;
+    }
+
+    /**
+     * Returns the transform from map coordinates to the coordinates of the canvas.
+     *
+     * @return {@link Affine} of the current zoom and pan
+     */
+    public Affine getViewTransform() {
+        return new Affine(scale, 0, offsetX, 0, scale, offsetY);
+    }
+
+    /**
+     * Zooms the map around the mouse position.
+     *
+     * @param event scroll event of the mouse wheel
+     */
+    private void handleScroll(ScrollEvent event) {
+        if (event.getDeltaY() == 0) {
+            return;
+        }
+        double factor = event.getDeltaY() > 0 ? zoomFactor : 1 / zoomFactor;
+        double newScale = Math.max(minScale, Math.min(maxScale, scale * factor));
+        double mapX = toMapX(event.getX());
+        double mapY = toMapY(event.getY());
+        scale = newScale;
+        offsetX = event.getX() - mapX * scale;
+        offsetY = event.getY() - mapY * scale;
+        updateView();
+        event.consume();
+    }
+
+    /**
+     * Remembers where a drag of the map starts.
+     *
+     * @param event mouse pressed event
+     */
+    private void handlePress(MouseEvent event) {
+        pressX = event.getX();
+        pressY = event.getY();
+    }
+
+    /**
+     * Pans the map while the mouse is dragged.
+     *
+     * @param event mouse dragged event
+     */
+    private void handleDrag(MouseEvent event) {
+        offsetX += event.getX() - pressX;
+        offsetY += event.getY() - pressY;
+        pressX = event.getX();
+        pressY = event.getY();
+        updateView();
+    }
+
+    /**
+     * Reports a click on a node to the node click handler. Clicks ending a drag are ignored.
+     *
+     * @param event mouse clicked event
+     */
+    private void handleClick(MouseEvent event) {
+        if (event.getButton() != MouseButton.PRIMARY || !event.isStillSincePress()) {
+            return;
+        }
+        double mapX = toMapX(event.getX());
+        double mapY = toMapY(event.getY());
+        double reach = Math.max(nodeSize, minNodePixels / scale);
+        int[] closest = {-1};
+        double[] closestDistance = {reach};
+        nodeGrid.forEachIn(mapX - reach, mapY - reach, mapX + reach, mapY + reach, index -> {
+            double distance = Math.hypot(mapLayout.getNodeX(nodeIds[index]) - mapX,
+                    mapLayout.getNodeY(nodeIds[index]) - mapY);
+            if (distance <= closestDistance[0]) {
+                closestDistance[0] = distance;
+                closest[0] = nodeIds[index];
+            }
+        });
+        if (closest[0] >= 0) {
+            nodeClickHandler.accept(closest[0]);
+        }
+    }
+
+    /**
+     * Redraws the map and its overlays after a change of the zoom or pan.
+     */
+    private void updateView() {
+        redraw();
+        viewListeners.forEach(Runnable::run);
+    }
+
+    /**
+     * Converts a x coordinate from map to screen coordinates.
+     *
+     * @param mapX x coordinate in map coordinates
+     * @return x coordinate in screen coordinates
+     */
+    private double toScreenX(double mapX) {
+        return mapX * scale + offsetX;
+    }
+
+    /**
+     * Converts a y coordinate from map to screen coordinates.
+     *
+     * @param mapY y coordinate in map coordinates
+     * @return y coordinate in screen coordinates
+     */
+    private double toScreenY(double mapY) {
+        return mapY * scale + offsetY;
+    }
+
+    /**
+     * Converts a x coordinate from screen to map coordinates.
+     *
+     * @param screenX x coordinate in screen coordinates
+     * @return x coordinate in map coordinates
+     */
+    private double toMapX(double screenX) {
+        return (screenX - offsetX) / scale;
+    }
+
+    /**
+     * Converts a y coordinate from screen to map coordinates.
+     *
+     * @param screenY y coordinate in screen coordinates
+     * @return y coordinate in map coordinates
+     */
+    private double toMapY(double screenY) {
+        return (screenY - offsetY) / scale;
+    }
+
+    /**
+     * Uniform grid over the bounding boxes of the items drawn on the map. Each item is listed
+     * in every cell its bounding box overlaps, so the items of a viewport are found by visiting
+     * only the cells it covers.
+     */
+    private static final class SpatialGrid {
+        private final double originX;
+        private final double originY;
+        private final double cellSize;
+        private final int columns;
+        private final int rows;
+        private final int[] cellStarts;
+        private final int[] cellItems;
+        private final int[] visitStamps;
+        private int stamp;
+
+        /**
+         * Builds the grid for items given by the corners of their bounding boxes.
+         *
+         * @param itemCount number of items
+         * @param x1        first x coordinate of an item
+         * @param y1        first y coordinate of an item
+         * @param x2        second x coordinate of an item
+         * @param y2        second y coordinate of an item
+         */
+        SpatialGrid(int itemCount, IntToDoubleFunction x1,
+                    IntToDoubleFunction y1, IntToDoubleFunction x2,
+                    IntToDoubleFunction y2) {
+            double minX = Double.MAX_VALUE;
+            double minY = Double.MAX_VALUE;
+            double maxX = -Double.MAX_VALUE;
+            double maxY = -Double.MAX_VALUE;
+            for (int i = 0; i < itemCount; i++) {
+                minX = Math.min(minX, Math.min(x1.applyAsDouble(i), x2.applyAsDouble(i)));
+                minY = Math.min(minY, Math.min(y1.applyAsDouble(i), y2.applyAsDouble(i)));
+                maxX = Math.max(maxX, Math.max(x1.applyAsDouble(i), x2.applyAsDouble(i)));
+                maxY = Math.max(maxY, Math.max(y1.applyAsDouble(i), y2.applyAsDouble(i)));
+            }
+            if (itemCount == 0) {
+                minX = minY = maxX = maxY = 0;
+            }
+            int cellsPerSide = Math.max(1, (int) Math.sqrt(itemCount));
+            this.originX = minX;
+            this.originY = minY;
+            this.cellSize = Math.max(Math.max(maxX - minX, maxY - minY) / cellsPerSide, 1e-9);
+            this.columns = Math.min(cellsPerSide, (int) ((maxX - minX) / cellSize) + 1);
+            this.rows = Math.min(cellsPerSide, (int) ((maxY - minY) / cellSize) + 1);
+            this.cellStarts = new int[columns * rows + 1];
+            this.visitStamps = new int[itemCount];
+
+            for (int i = 0; i < itemCount; i++) {
+                int[] cells = cellRange(i, x1, y1, x2, y2);
+                for (int r = cells[2]; r <= cells[3]; r++) {
+                    for (int c = cells[0]; c <= cells[1]; c++) {
+                        cellStarts[r * columns + c + 1]++;
+                    }
+                }
+            }
+            for (int cell = 0; cell < columns * rows; cell++) {
+                cellStarts[cell + 1] += cellStarts[cell];
+            }
+            this.cellItems = new int[cellStarts[columns * rows]];
+            int[] cursor = Arrays.copyOf(cellStarts, cellStarts.length);
+            for (int i = 0; i < itemCount; i++) {
+                int[] cells = cellRange(i, x1, y1, x2, y2);
+                for (int r = cells[2]; r <= cells[3]; r++) {
+                    for (int c = cells[0]; c <= cells[1]; c++) {
+                        cellItems[cursor[r * columns + c]++] = i;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Finds the cells overlapped by the bounding box of an item.
+         *
+         * @param item index of the item
+         * @param x1   first x coordinate of an item
+         * @param y1   first y coordinate of an item
+         * @param x2   second x coordinate of an item
+         * @param y2   second y coordinate of an item
+         * @return first column, last column, first row and last row of the cells
+         */
+        private int[] cellRange(int item, IntToDoubleFunction x1, IntToDoubleFunction y1,
+                                IntToDoubleFunction x2, IntToDoubleFunction y2) {
+            double startX = x1.applyAsDouble(item);
+            double startY = y1.applyAsDouble(item);
+            double endX = x2.applyAsDouble(item);
+            double endY = y2.applyAsDouble(item);
+            return new int[]{column(Math.min(startX, endX)), column(Math.max(startX, endX)),
+                    row(Math.min(startY, endY)), row(Math.max(startY, endY))};
+        }
+
+        /**
+         * Finds the column of the grid containing an x coordinate, clamped to the grid.
+         *
+         * @param x x coordinate in map coordinates
+         * @return column of the grid
+         */
+        private int column(double x) {
+            return Math.max(0, Math.min(columns - 1, (int) ((x - originX) / cellSize)));
+        }
+
+        /**
+         * Finds the row of the grid containing a y coordinate, clamped to the grid.
+         *
+         * @param y y coordinate in map coordinates
+         * @return row of the grid
+         */
+        private int row(double y) {
+            return Math.max(0, Math.min(rows - 1, (int) ((y - originY) / cellSize)));
+        }
+
+        /**
+         * Visits each item whose cells overlap the rectangle once.
+         *
+         * @param minX    left edge of the rectangle
+         * @param minY    top edge of the rectangle
+         * @param maxX    right edge of the rectangle
+         * @param maxY    bottom edge of the rectangle
+         * @param visitor visitor receiving the item indices
+         */
+        void forEachIn(double minX, double minY, double maxX, double maxY, IntConsumer visitor) {
+            if (maxX < originX || maxY < originY
+                    || minX > originX + columns * cellSize || minY > originY + rows * cellSize) {
+                return;
+            }
+            stamp++;
+            for (int r = row(minY); r <= row(maxY); r++) {
+                for (int c = column(minX); c <= column(maxX); c++) {
+                    int cell = r * columns + c;
+                    for (int i = cellStarts[cell]; i < cellStarts[cell + 1]; i++) {
+                        int item = cellItems[i];
+                        if (visitStamps[item] != stamp) {
+                            visitStamps[item] = stamp;
+                            visitor.accept(item);
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
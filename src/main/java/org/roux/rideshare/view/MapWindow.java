@@ -1,8 +1,10 @@
 package org.roux.rideshare.view;
 
 import javafx.animation.Animation;
-import javafx.animation.PathTransition;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
 import javafx.scene.Scene;
+import javafx.scene.canvas.Canvas;
 import javafx.scene.control.Alert;
 import javafx.scene.control.ButtonType;
 import javafx.scene.control.Label;
@@ -11,11 +13,19 @@ import javafx.scene.layout.Pane;
 import javafx.scene.layout.VBox;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.*;
+import javafx.scene.transform.Affine;
 import javafx.stage.Stage;
+import javafx.stage.WindowEvent;
 import javafx.util.Duration;
 import org.roux.rideshare.model.*;
-import org.roux.rideshare.utils.DijkstraAlgorithm;
+import org.roux.rideshare.utils.EdgeIndex;
+import org.roux.rideshare.utils.LandmarkIndex;
+import org.roux.rideshare.utils.LegDistanceCache;
+import org.roux.rideshare.utils.RouteCache;
+import org.roux.rideshare.utils.RoutingEngine;
+import org.roux.rideshare.utils.TripJournal;
 
+import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -35,108 +45,261 @@ public class MapWindow {
     private static final Color sourceColor = Color.GREEN;
     private static final Color destinationColor = Color.RED;
     private static final Random colorRandom = new Random();
-    private Passenger passenger;
+    private static final String journalProperty = "rideshare.journal";
+    private static final String renderProperty = "rideshare.render";
+    private static final String fleetSizeProperty = "rideshare.cabs";
+    private static final int defaultFleetSize = 5;
+    private static final int canvasNodeThreshold = 2000;
+    private static final int regionColumns = 4;
+    private static final int regionRows = 3;
+    private static final double demandDecayMillis = 10 * 60 * 1000;
+    private static final double rebalancePeriodSeconds = 5;
+    private static final long rebalanceBudgetNanos = 2_000_000;
+    private static final int legCacheCapacity = 4096;
+    private static final double sharePickupLimit = 30;
+    private static final System.Logger logger = System.getLogger(MapWindow.class.getName());
+    private final Passenger passenger;
     private final MapLayout mapLayout;
-    private final DijkstraAlgorithm dAlgo;
+    private final RouteCache routeCache;
+    private final RideQuoteService quoteService;
     private final java.util.Map<Integer, Circle> nodeMap = new HashMap<>();
-    private final java.util.Map<Integer, List<Line>> edgesMap = new HashMap<>();
+    private final java.util.Map<Integer, List<Line>> routeLines = new HashMap<>();
+    private MapCanvas mapCanvas;
+    private FleetRenderer fleetRenderer;
+    private Canvas fleetCanvas;
     private Label instructionLabel;
     private final CabPool cabPool;
     private Pane mapPane;
     private Label rideCostLabel;
+    private TripJournal journal;
+    private EdgeIndex edgeIndex;
+    private DemandForecaster forecaster;
+    private IdleCabRebalancer rebalancer;
+    private Timeline rebalanceTimeline;
 
     /**
-     * Constructs a new {@code MapWindow} with specified {@link MapLayout} and {@link  DijkstraAlgorithm}.
+     * Constructs a new {@code MapWindow} with specified {@link MapLayout}, {@link RouteCache} and
+     * {@link LandmarkIndex}. The number of cabs is read from the {@code rideshare.cabs} system
+     * property, 5 by default.
      *
-     * @param mapLayout layout of the map
-     * @param dAlgo     Dijkstra's algorithm
+     * @param mapLayout  layout of the map
+     * @param routeCache cached Dijkstra's algorithm results
+     * @param landmarks  landmark index of the map, for the bounded searches of shared rides
      */
-    public MapWindow(MapLayout mapLayout, DijkstraAlgorithm dAlgo) {
+    public MapWindow(MapLayout mapLayout, RouteCache routeCache, LandmarkIndex landmarks) {
         this.mapLayout = mapLayout;
-        this.dAlgo = dAlgo;
-        this.cabPool = new CabPool(5);
+        this.routeCache = routeCache;
+        this.cabPool = new CabPool(Integer.getInteger(fleetSizeProperty, defaultFleetSize));
+        this.cabPool.setLandmarks(landmarks, sharePickupLimit);
+        this.quoteService = new RideQuoteService(cabPool, mapLayout,
+                new LegDistanceCache(routeCache, legCacheCapacity));
         this.passenger = new Passenger(null, null, false);
+        openJournal();
     }
 
     /**
-     * Record to maintain path and distance of the path
-     *
-     * @param distance distance of the path
-     * @param path     path of the graph
+     * Opens the trip journal configured by the {@code rideshare.journal} system property.
+     * The bookings recorded in an existing journal are replayed into the cab pool before
+     * new events are appended to it.
      */
-    public record PathAndDistances(double distance, List<Integer> path) {
+    private void openJournal() {
+        String journalPath = System.getProperty(journalProperty);
+        if (journalPath == null || journalPath.isBlank()) {
+            return;
+        }
+        try {
+            java.nio.file.Path path = java.nio.file.Path.of(journalPath);
+            TripJournal.replay(path, cabPool);
+            journal = new TripJournal(path);
+            cabPool.setJournal(journal);
+        } catch (IOException | RuntimeException e) {
+            logger.log(System.Logger.Level.WARNING,
+                    "Trip journal " + journalPath + " unavailable, continuing without it", e);
+        }
+    }
+
+    /**
+     * Resumes the rides of the cabs restored from the trip journal, by routing each
+     * cab again for the rides on board.
+     */
+    private void resumeRestoredRides() {
+        for (Cab cab : new ArrayList<>(cabPool.getBookedCabs())) {
+            calculateShortestPath(cab);
+        }
+    }
+
+    /**
+     * Clears the passenger being selected on the map, so the same object is reused for the
+     * next booking. The pool keeps its own copy of every booked ride.
+     */
+    private void clearPassenger() {
+        passenger.setSource(null);
+        passenger.setDestination(null);
+        passenger.setShareRide(false);
+    }
+
+    /**
+     * Closes the trip journal, if any, flushing the pending events to disk.
+     */
+    private void closeJournal() {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            logger.log(System.Logger.Level.WARNING,
+                    "Trip journal could not be closed", e);
+        }
     }
 
     /**
      * Visualizes the map-graph layout using the structure of the graph and positions
      * of vertices. Adds an {@link org.w3c.dom.events.MouseEvent} to handle the selection
      * of source and destination nodes of the passenger and display the cab's path.
+     * Large maps, or any map when the {@code rideshare.render} system property is
+     * {@code canvas}, are drawn on a {@link MapCanvas} instead of one scene node per element.
      *
      * @param rideShare {@link Stage} of the application
      */
     public void visualize(Stage rideShare) {
-        mapPane = new Pane();
         BorderPane borderPane = new BorderPane();
+        if (!mapLayout.hasNodePositions()) {
+            mapLayout.layoutNodes(windowWidth, windowHeight);
+        }
+        edgeIndex = new EdgeIndex(mapLayout);
+
+        if (useCanvas()) {
+            mapCanvas = new MapCanvas(mapLayout, nodeSize);
+            mapCanvas.setOnNodeClicked(this::handleNodeClick);
+            mapPane = mapCanvas.getMapPane();
+            fleetCanvas = mapCanvas.createOverlay(() -> fleetRenderer.draw());
+            fleetRenderer = new FleetRenderer(cabPool.getFleet(), fleetCanvas, mapCanvas::getViewTransform);
+        } else {
+            mapPane = new Pane();
+            visualizeNodes();
+            fleetCanvas = new Canvas(windowWidth, windowHeight);
+            fleetCanvas.setMouseTransparent(true);
+            mapPane.getChildren().add(fleetCanvas);
+            fleetRenderer = new FleetRenderer(cabPool.getFleet(), fleetCanvas, Affine::new);
+        }
         mapPane.setPrefSize(windowWidth, windowHeight);
 
-        java.util.Map<Integer, Double> xCoordinates = new HashMap<>();
-        java.util.Map<Integer, Double> yCoordinates = new HashMap<>();
+        instructionsPanel(borderPane);
+        borderPane.setCenter(mapPane);
+        Scene scene = new Scene(borderPane);
+        rideShare.setScene(scene);
+        rideShare.addEventHandler(WindowEvent.WINDOW_HIDDEN, e -> closeJournal());
+        rideShare.addEventHandler(WindowEvent.WINDOW_HIDDEN, e -> rebalanceTimeline.stop());
+        rideShare.show();
+        placeIdleCabs();
+        startRebalancing();
+        resumeRestoredRides();
+    }
 
-        for (int i = 0; i < mapLayout.getVerticalLanes().length; i++) {
-            double xCoordinate = (i + 1) * ((double) windowWidth / (mapLayout.getVerticalLanes().length + 1));
-            for (int node : mapLayout.getVerticalLanes()[i]) {
-                xCoordinates.put(node, xCoordinate);
-            }
+    /**
+     * Spreads the idle cabs evenly over the nodes of the map, so that they have a location
+     * before their first ride.
+     */
+    private void placeIdleCabs() {
+        cabPool.spreadIdleCabs(mapLayout);
+        IndexedCabSet idleCabs = cabPool.getCabs(CabPool.CabState.IDLE);
+        for (int i = 0; i < idleCabs.size(); i++) {
+            fleetRenderer.park(idleCabs.get(i));
         }
+        fleetRenderer.draw();
+    }
 
-        for (int i = 0; i < mapLayout.getHorizontalLanes().length; i++) {
-            double yCoordinate = (i + 1) * ((double) windowHeight / (mapLayout.getHorizontalLanes().length + 1));
-            for (int node : mapLayout.getHorizontalLanes()[i]) {
-                yCoordinates.put(node, yCoordinate);
+    /**
+     * Starts forecasting the demand per region of the map and periodically moves the idle
+     * cabs towards the regions where requests are expected.
+     */
+    private void startRebalancing() {
+        RegionPartition partition = RegionPartition.grid(mapLayout, regionColumns, regionRows);
+        forecaster = new DemandForecaster(partition, demandDecayMillis, System.currentTimeMillis());
+        rebalancer = new IdleCabRebalancer(cabPool, mapLayout, forecaster, routeCache);
+        rebalanceTimeline = new Timeline(new KeyFrame(Duration.seconds(rebalancePeriodSeconds),
+                e -> rebalanceIdleCabs()));
+        rebalanceTimeline.setCycleCount(Animation.INDEFINITE);
+        rebalanceTimeline.play();
+    }
+
+    /**
+     * Runs the rebalancer within its time budget and drives every moved cab to its new node.
+     * The cab cannot be booked on the way and becomes idle at its new node when it arrives.
+     */
+    private void rebalanceIdleCabs() {
+        for (IdleCabRebalancer.Move move : rebalancer.rebalance(System.currentTimeMillis(), rebalanceBudgetNanos)) {
+            if (!cabPool.startRepositioning(move.cabId())) {
+                continue;
             }
+            double[] distancesFromSource = routeCache.distancesFrom(move.fromNode());
+            List<Integer> path = generatePath(move.fromNode(), move.toNode(), distancesFromSource);
+            double[] routeX = new double[path.size()];
+            double[] routeY = new double[path.size()];
+            for (int i = 0; i < path.size(); i++) {
+                routeX[i] = mapLayout.getNodeX(path.get(i));
+                routeY[i] = mapLayout.getNodeY(path.get(i));
+            }
+            double distance = RoutingEngine.distanceOf(distancesFromSource, move.toNode());
+            fleetRenderer.startRide(move.cabId(), routeX, routeY,
+                    RideQuoteService.secondsOf(distance < Double.POSITIVE_INFINITY ? distance : 0),
+                    () -> cabPool.finishRepositioning(move.cabId(), move.toNode(), mapLayout));
         }
+    }
 
-        xCoordinates.forEach((node, xCoordinate) -> {
-            double yCoordinate = yCoordinates.get(node);
-            Circle circle = new Circle(xCoordinate, yCoordinate, nodeSize, Color.BLUE);
+    /**
+     * Adds one {@link Circle} per node and one {@link Line} per edge to the map pane. Edges
+     * present in both directions are drawn once.
+     */
+    private void visualizeNodes() {
+        mapLayout.getVerticesAdjList().keySet().forEach(node -> {
+            Circle circle = new Circle(mapLayout.getNodeX(node), mapLayout.getNodeY(node), nodeSize, Color.BLUE);
             mapPane.getChildren().add(circle);
             nodeMap.put(node, circle);
         });
 
         mapLayout.getVerticesAdjList().forEach((source, targets) -> targets.forEach(target -> {
-            Circle sourceNode = nodeMap.get(source);
-            Circle destinationNode = nodeMap.get(target.getTarget());
-            Line edge = new Line(sourceNode.getCenterX(), sourceNode.getCenterY(),
-                    destinationNode.getCenterX(), destinationNode.getCenterY());
-            addEdge(source, edge);
-            edge.setStroke(Color.GRAY);
-            mapPane.getChildren().add(edge);
+            if (source < target.getTarget()) {
+                Line edge = new Line(mapLayout.getNodeX(source), mapLayout.getNodeY(source),
+                        mapLayout.getNodeX(target.getTarget()), mapLayout.getNodeY(target.getTarget()));
+                edge.setStroke(Color.GRAY);
+                mapPane.getChildren().add(edge);
+            }
         }));
 
         nodeMap.forEach((nodeId, circle) -> circle.setOnMouseClicked(e -> handleNodeClick(nodeId)));
+    }
 
-        instructionsPanel(borderPane);
-        borderPane.setCenter(mapPane);
-        Scene scene = new Scene(borderPane);
-        rideShare.setScene(scene);
-        rideShare.show();
+    /**
+     * Decides whether the map is drawn on a {@link MapCanvas}. The {@code rideshare.render}
+     * system property selects {@code canvas} or {@code nodes} explicitly, otherwise the
+     * canvas is used for maps with more than {@code canvasNodeThreshold} nodes.
+     *
+     * @return true if the map is drawn on a canvas, else false
+     */
+    private boolean useCanvas() {
+        String renderMode = System.getProperty(renderProperty, "");
+        if (renderMode.equalsIgnoreCase("canvas")) {
+            return true;
+        }
+        if (renderMode.equalsIgnoreCase("nodes")) {
+            return false;
+        }
+        return mapLayout.getVerticesAdjList().size() > canvasNodeThreshold;
     }
 
     /**
-     * Adds an edge to a particular node
+     * Changes the color of a node in the active rendering mode.
      *
-     * @param node node of the graph
-     * @param edge edge from the node
+     * @param nodeId node of the graph
+     * @param color  {@link Color} of the node
      */
-    private void addEdge(Integer node, Line edge) {
-        List<Line> existingEdges = edgesMap.get(node);
-        if (existingEdges != null) {
-            existingEdges.add(edge);
-            edgesMap.put(node, existingEdges);
+    private void setNodeColor(int nodeId, Color color) {
+        if (mapCanvas != null) {
+            mapCanvas.setNodeColor(nodeId, color);
         } else {
-            List<Line> newEdge = new ArrayList<>();
-            newEdge.add(edge);
-            edgesMap.put(node, newEdge);
+            nodeMap.get(nodeId).setFill(color);
         }
     }
 
@@ -164,39 +327,61 @@ public class MapWindow {
      * @param nodeId selected node
      */
     private void handleNodeClick(Integer nodeId) {
-        Circle node = nodeMap.get(nodeId);
         if (passenger.getSource() == null) {
             passenger.setSource(nodeId);
-            node.setFill(sourceColor);
+            setNodeColor(nodeId, sourceColor);
             instructionLabel.setText("Select the ending node.");
         } else if (passenger.getDestination() == null && !nodeId.equals(passenger.getSource())) {
             passenger.setDestination(nodeId);
-            node.setFill(destinationColor);
+            forecaster.recordRequest(passenger.getSource(), System.currentTimeMillis());
+            setNodeColor(nodeId, destinationColor);
             shareCabPopup();
             instructionLabel.setText("Calculating shortest path...");
-            Cab cab = this.cabPool.bookCab(passenger, nodeMap);
+            RideRequest request = new RideRequest(0, passenger.getSource(), passenger.getDestination(),
+                    passenger.isShareRide(), passenger.getMaxDetourRatio(), passenger.getMaxWaitSeconds());
+            RideQuoteService.Quote quote = request.shareRide()
+                    ? quoteService.quoteShared(request)
+                    : quoteService.quoteSolo(request.source(), request.destination());
+            Cab cab = quote == null ? null : cabPool.bookRide(request, quote.cabId());
             if (cab == null) {
                 noCab();
             } else {
                 calculateShortestPath(cab);
             }
-            this.passenger = new Passenger(null, null, false);
+            clearPassenger();
             instructionLabel.setText("Select the starting node.");
         }
     }
 
     /**
-     * Display a popup window to ask for the preference of sharing ride.
+     * Display a popup window to ask for the preference of sharing ride, quoting the fare
+     * and times of both options.
      */
     private void shareCabPopup() {
         Alert shareCabAlert = new Alert(Alert.AlertType.CONFIRMATION);
         shareCabAlert.setTitle("Share Cab Popup");
         shareCabAlert.setHeaderText("Options");
-        shareCabAlert.setContentText("Do you want to share ride?");
+        shareCabAlert.setContentText("Solo: " + describeQuote(quoteService.quoteSolo(passenger.getSource(),
+                passenger.getDestination())) + "\nShared: " + describeQuote(quoteService.quoteShared(
+                passenger.getSource(), passenger.getDestination())) + "\nDo you want to share ride?");
         Optional<ButtonType> shareCabResult = shareCabAlert.showAndWait();
         passenger.setShareRide(shareCabResult.isPresent() && shareCabResult.get() == ButtonType.OK);
     }
 
+    /**
+     * Describes a quote for the share cab popup.
+     *
+     * @param quote quote of a ride, null if no cab is available
+     * @return fare, pickup time and trip time of the ride
+     */
+    private String describeQuote(RideQuoteService.Quote quote) {
+        if (quote == null) {
+            return "no cab available";
+        }
+        return String.format("%.2f$, pickup in %.0fs, trip of %.0fs",
+                quote.fare(), quote.pickupSeconds(), quote.tripSeconds());
+    }
+
     /**
      * Display a popup window stating unavailability of cabs.
      */
@@ -208,119 +393,46 @@ public class MapWindow {
     }
 
     /**
-     * Calculates the shortest path for the ride of cab's passengers. Triggers methods to
-     * modify the existing path in case of ride-sharing and highlights the ride's path.
+     * Calculates the shortest path for the ride of cab's passengers along the stops of the
+     * route quoted by the {@link RideQuoteService}, so the cab drives, and charges, the route
+     * its booking was quoted with. Highlights the ride's path.
      *
      * @param cab {@link Cab} booked cab
      */
     private void calculateShortestPath(Cab cab) {
-        if (passenger.getSource() != null && passenger.getDestination() != null) {
-            java.util.Map<Integer, Double> distancesFromSource = dAlgo.shortestPaths(passenger.getSource());
-            PathAndDistances modifiedPath = modifyPath(cab, distancesFromSource);
-            List<Integer> pathOfRide = modifiedPath.path();
-            double totalDistanceOfRide = modifiedPath.distance();
-            displayPath(pathOfRide, getRandomColor());
-            cab.setMapPane(mapPane);
-            cab.setupCar();
-            displayCabRide(pathOfRide, totalDistanceOfRide, cab);
+        RideQuoteService.Quote route = quoteService.quoteBooked(cab.getId());
+        if (route == null) {
+            return;
         }
-    }
-
-    /**
-     * Modifies the path of the cab for ride-sharing or provides the normal path in case of
-     * personal cab-ride.
-     *
-     * @param cab                 booked cab
-     * @param distancesFromSource distancesFromSource calculated from Dijkstra's algorithm
-     * @return {@link PathAndDistances} of the final path of cab
-     */
-    private PathAndDistances modifyPath(Cab cab, java.util.Map<Integer, Double> distancesFromSource) {
-        List<Passenger> passengers = cab.getPassengers();
-        PathAndDistances pathAndDistances = new PathAndDistances(0.0, new ArrayList<>());
-        switch (passengers.size()) {
-            case 1 -> {
-                List<Integer> finalPath = generatePath(passenger.getSource(),
-                        passenger.getDestination(), distancesFromSource);
-                double distPath = calculateTotalDistanceRide(distancesFromSource, finalPath);
-                pathAndDistances = new PathAndDistances(distPath, finalPath);
-            }
-            case 2 -> {
-                List<Integer> finalPath = new ArrayList<>();
-                double distPath = 0.0;
-                Passenger passenger1 = passengers.get(0);
-                List<Integer> initialPath = generatePath(passenger1.getSource(),
-                        passenger.getSource(), distancesFromSource);
-                List<Integer> path1 = generatePath(passenger.getSource(),
-                        passenger1.getDestination(), distancesFromSource);
-                List<Integer> path2 = generatePath(passenger.getSource(),
-                        passenger.getDestination(), distancesFromSource);
-                double initialPathDist = calculateTotalDistanceRide(distancesFromSource, initialPath);
-                double distPath1 = calculateTotalDistanceRide(distancesFromSource, path1);
-                double distPath2 = calculateTotalDistanceRide(distancesFromSource, path2);
-                distPath = distPath + initialPathDist;
-                if (distPath1 <= distPath2) {
-                    finalPath.addAll(path1);
-                    distPath = distPath + distPath1;
-                    java.util.Map<Integer, Double> lastDistances = dAlgo.shortestPaths(passenger1.getDestination());
-                    List<Integer> lastPath = generatePath(passenger1.getDestination(),
-                            passenger.getDestination(), lastDistances);
-                    double lastPathDistance = calculateTotalDistanceRide(lastDistances, lastPath);
-                    distPath = distPath +lastPathDistance;
-                    finalPath.addAll(lastPath);
-                    pathAndDistances = new PathAndDistances(distPath, finalPath);
-                } else {
-                    finalPath.addAll(path2);
-                    distPath = distPath + distPath2;
-                    java.util.Map<Integer, Double> lastDistances = dAlgo.shortestPaths(passenger.getDestination());
-                    List<Integer> lastPath = generatePath(passenger.getDestination(),
-                            passenger1.getDestination(), lastDistances);
-                    double lastPathDistance = calculateTotalDistanceRide(lastDistances, lastPath);
-                    distPath = distPath + lastPathDistance;
-                    finalPath.addAll(lastPath);
-                    pathAndDistances = new PathAndDistances(distPath, finalPath);
-                }
-            }
-            default -> {
-            }
-        }
-        return pathAndDistances;
-    }
-
-    /**
-     * Calculates the total distance of a particular ride path of a cab
-     *
-     * @param distancesFromSource distancesFromSource calculated from Dijkstra's algorithm
-     * @param path                path of the cab-rides
-     * @return total distance of the ride
-     */
-    private double calculateTotalDistanceRide(java.util.Map<Integer, Double> distancesFromSource,
-                                              List<Integer> path) {
-        double totalDistance = 0.0;
-        for (Integer i : path) {
-            totalDistance = totalDistance + distancesFromSource.getOrDefault(i, 0.0);
+        int[] stops = route.stops();
+        List<Integer> pathOfRide = new ArrayList<>();
+        for (int i = 0; i < stops.length - 1; i++) {
+            List<Integer> leg = generatePath(stops[i], stops[i + 1], routeCache.distancesFrom(stops[i]));
+            pathOfRide.addAll(pathOfRide.isEmpty() ? leg : leg.subList(1, leg.size()));
         }
-        return totalDistance;
+        cabPool.recordRoute(cab, route.distance());
+        displayPath(cab, pathOfRide, getRandomColor());
+        displayCabRide(pathOfRide, route, cab);
     }
 
     /**
      * Computes a path from a source node and destination node using the distances
-     * calculated from Dijkstra's algorithm.
+     * calculated by the {@link RoutingEngine} of the route cache.
      *
      * @param sourceNode          source node of path
      * @param destinationNode     destination node of path
-     * @param distancesFromSource distancesFromSource calculated from Dijkstra's algorithm
+     * @param distancesFromSource distances from the source node, indexed by node id
      * @return path for a ride
      */
-    private List<Integer> generatePath(int sourceNode, int destinationNode,
-                                       java.util.Map<Integer, Double> distancesFromSource) {
+    private List<Integer> generatePath(int sourceNode, int destinationNode, double[] distancesFromSource) {
         List<Integer> path = new ArrayList<>();
         int currentNode = destinationNode;
         while (currentNode != sourceNode) {
             path.add(currentNode);
-            int finalCurrentNode = currentNode;
+            double currentDistance = RoutingEngine.distanceOf(distancesFromSource, currentNode);
             currentNode = mapLayout.getVerticesAdjList().get(currentNode).stream()
-                    .filter(e -> distancesFromSource.getOrDefault(e.getTarget(),
-                            Double.MAX_VALUE) == distancesFromSource.get(finalCurrentNode) - e.getWeight())
+                    .filter(e -> currentDistance < Double.POSITIVE_INFINITY && RoutingEngine.distanceOf(
+                            distancesFromSource, e.getTarget()) == currentDistance - e.getWeight())
                     .findAny().orElse(new Lane(sourceNode, 0)).getTarget();
         }
         path.add(sourceNode);
@@ -329,67 +441,81 @@ public class MapWindow {
     }
 
     /**
-     * Displays a path for a cab-ride using a particular {@link Color}
+     * Displays a path for a cab-ride using a particular {@link Color}, replacing the
+     * path previously displayed for the same cab.
      *
+     * @param cab   cab of the ride
      * @param path  path of cab-rde
      * @param color {@link Color} for path
      */
-    private void displayPath(List<Integer> path, Color color) {
+    private void displayPath(Cab cab, List<Integer> path, Color color) {
+        if (mapCanvas != null) {
+            mapCanvas.setRouteOverlay(cab.getId(), path, color);
+            return;
+        }
+        clearPath(cab);
+        List<Line> lines = new ArrayList<>();
         for (int i = 0; i < path.size() - 1; i++) {
             int sourceNode = path.get(i);
             int destinationNode = path.get(i + 1);
-            Line edge = new Line(nodeMap.get(sourceNode).getCenterX(),
-                    nodeMap.get(sourceNode).getCenterY(),
-                    nodeMap.get(destinationNode).getCenterX(),
-                    nodeMap.get(destinationNode).getCenterY());
+            Line edge = new Line(mapLayout.getNodeX(sourceNode), mapLayout.getNodeY(sourceNode),
+                    mapLayout.getNodeX(destinationNode), mapLayout.getNodeY(destinationNode));
             edge.setStroke(color);
             edge.setStrokeWidth(3);
-            ((Pane) nodeMap.get(sourceNode).getParent()).getChildren().add(edge);
+            lines.add(edge);
         }
+        mapPane.getChildren().addAll(mapPane.getChildren().indexOf(fleetCanvas), lines);
+        routeLines.put(cab.getId(), lines);
     }
 
     /**
-     * Displays the ride transition of the cab using {@link PathTransition}.
+     * Removes the path displayed for a cab-ride once the ride is over.
      *
-     * @param path                path of the ride
-     * @param totalDistanceOfPath total distance of the path
-     * @param cab                 booked cab
+     * @param cab cab of the ride
      */
-    private void displayCabRide(List<Integer> path, double totalDistanceOfPath, Cab cab) {
-        Path cabRoute = new Path();
-        for (int i = 0; i < path.size() - 1; i++) {
-            int node = path.get(i);
-            int nextNode = path.get(i + 1);
-            Line edge = findEdgeBetweenNodes(node, nextNode);
-            if (edge != null) {
-                PathElement routeElement = new LineTo(edge.getEndX(), edge.getEndY());
-                if (i == 0) {
-                    cabRoute.getElements().add(new MoveTo(edge.getStartX(), edge.getStartY()));
-                }
-                cabRoute.getElements().add(routeElement);
-            }
+    private void clearPath(Cab cab) {
+        if (mapCanvas != null) {
+            mapCanvas.removeRouteOverlay(cab.getId());
+            return;
         }
-        PathTransition pathTransition;
-        if (cab.getRoute() != null) {
-            pathTransition = cab.getRoute();
-            if (pathTransition.getStatus() == Animation.Status.RUNNING) {
-                pathTransition.stop();
-                pathTransition.setPath(cabRoute);
-                pathTransition.playFromStart();
+        List<Line> lines = routeLines.remove(cab.getId());
+        if (lines != null) {
+            mapPane.getChildren().removeAll(lines);
+        }
+    }
+
+    /**
+     * Displays the ride of the cab by handing its route to the {@link FleetRenderer},
+     * replacing the ride the cab was on in case of ride-sharing. Each hop of the route is
+     * checked against the {@link EdgeIndex}, and hops without a lane are reported. The ride
+     * lasts the quoted time of the whole route, pickup included, and the fare recorded when it
+     * ends is the one shown.
+     *
+     * @param path  path of the ride
+     * @param route quote of the route of the cab
+     * @param cab   booked cab
+     */
+    private void displayCabRide(List<Integer> path, RideQuoteService.Quote route, Cab cab) {
+        double[] routeX = new double[path.size()];
+        double[] routeY = new double[path.size()];
+        for (int i = 0; i < path.size(); i++) {
+            int node = path.get(i);
+            if (i > 0 && edgeIndex.edgeId(path.get(i - 1), node) < 0) {
+                logger.log(System.Logger.Level.WARNING, "No lane from node " + path.get(i - 1)
+                        + " to node " + node + " on the route of cab " + cab.getId());
             }
-        } else {
-            pathTransition = new PathTransition(Duration.seconds(totalDistanceOfPath / 2),
-                    cabRoute, cab.getCarSymbol());
-            cab.setRoute(pathTransition);
+            routeX[i] = mapLayout.getNodeX(node);
+            routeY[i] = mapLayout.getNodeY(node);
         }
-        cab.getCarSymbol().setVisible(true);
-        pathTransition.play();
-        pathTransition.setOnFinished(event -> {
-            double fare = totalDistanceOfPath / (10);
-            rideCostLabel.setText("Total fare = " + fare + "$\nfor " + cab.getPassengers().size() + " passenger(s)");
+        double fare = RideQuoteService.fareOf(route.distance());
+        fleetRenderer.startRide(cab.getId(), routeX, routeY, route.finishSeconds(), () -> {
+            cabPool.recordFare(cab, fare);
+            rideCostLabel.setText(String.format("Total fare = %.2f$\nfor %d passenger(s)", fare,
+                    cab.getPassengerCount()));
+            cab.setCurrentNode(path.get(path.size() - 1));
+            clearPath(cab);
             cabPool.dropOffCab(cab);
         });
-
     }
 
     /**
@@ -403,36 +529,4 @@ public class MapWindow {
         float blueValue = colorRandom.nextFloat();
         return new Color(redValue, greenValue, blueValue, 1.0);
     }
-
-    /**
-     * Checks if an edge is present between two nodes of a graph.
-     *
-     * @param node1 first node of an edge
-     * @param node2 second node of an edge
-     * @return {@link Line} between the nodes
-     */
-    private Line findEdgeBetweenNodes(int node1, int node2) {
-        List<Line> edgesFromNode1 = edgesMap.get(node1);
-        if (edgesFromNode1 != null) {
-            for (Line edge : edgesFromNode1) {
-                if (isEndpoint(edge, node2)) {
-                    return edge;
-                }
-            }
-        }
-        return null;
-    }
-
-    /**
-     * Checks if an edge terminates at a given node
-     *
-     * @param edge   edge of the graph
-     * @param nodeID node of the graph
-     * @return true if edge terminates at given node, else false
-     */
-    private boolean isEndpoint(Line edge, int nodeID) {
-        Circle node = nodeMap.get(nodeID);
-        return (Math.abs(edge.getEndX() - node.getCenterX()) < 1.0 &&
-                Math.abs(edge.getEndY() - node.getCenterY()) < 1.0);
-    }
 }
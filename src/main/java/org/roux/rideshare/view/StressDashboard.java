@@ -0,0 +1,294 @@
+package org.roux.rideshare.view;
+
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.application.Platform;
+import javafx.geometry.Insets;
+import javafx.scene.Scene;
+import javafx.scene.chart.LineChart;
+import javafx.scene.chart.NumberAxis;
+import javafx.scene.chart.XYChart;
+import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.Spinner;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.VBox;
+import javafx.stage.Stage;
+import javafx.stage.WindowEvent;
+import javafx.util.Duration;
+import org.roux.rideshare.model.MapLayout;
+import org.roux.rideshare.model.StressRun;
+import org.roux.rideshare.utils.LatencyHistogram;
+
+/**
+ * The {@code StressDashboard} class handles the window of the stress mode. It lets the user
+ * pick a fleet size, a request rate and a map, either the map of the application or a
+ * generated grid, and runs a {@link StressRun} on them in the background. Every second, the
+ * dashboard shows the bookings per second against the offered rate, the p50 and p99 latency
+ * of matching and routing, the utilization of the fleet and the rejection rate over the last
+ * second.
+ *
+ * @author Venkateshprasad, Prajwal, Gaurav
+ * @version 1.0
+ */
+public class StressDashboard {
+    private static final int windowWidth = 760;
+    private static final int windowHeight = 620;
+    private static final double mapWidth = 1000;
+    private static final double mapHeight = 700;
+    private static final int defaultCabs = 500;
+    private static final int maxCabs = 200_000;
+    private static final int defaultRequestsPerSecond = 1000;
+    private static final int maxRequestsPerSecond = 1_000_000;
+    private static final int defaultGridNodes = 10_000;
+    private static final int maxGridNodes = 1_000_000;
+    private static final double defaultShareFraction = 0.3;
+    private static final double defaultTimeScale = 10;
+    private static final int chartSeconds = 60;
+    private static final System.Logger logger = System.getLogger(StressDashboard.class.getName());
+    private final MapLayout mapLayout;
+    private final XYChart.Series<Number, Number> bookingSeries = new XYChart.Series<>();
+    private final XYChart.Series<Number, Number> offeredSeries = new XYChart.Series<>();
+    private final Label statusLabel = new Label("Idle");
+    private final Label bookingsLabel = new Label();
+    private final Label matchingLabel = new Label();
+    private final Label routingLabel = new Label();
+    private final Label utilizationLabel = new Label();
+    private final Label rejectionLabel = new Label();
+    private Timeline sampleTimeline;
+    private Thread stressThread;
+    private volatile StressRun stressRun;
+    private StressRun.Sample firstSample;
+    private StressRun.Sample previousSample;
+
+    /**
+     * Constructs a new {@code StressDashboard} with specified {@link MapLayout}.
+     *
+     * @param mapLayout layout of the map of the application
+     */
+    public StressDashboard(MapLayout mapLayout) {
+        this.mapLayout = mapLayout;
+    }
+
+    /**
+     * Displays the dashboard in a new window. Closing the window stops the stress run.
+     */
+    public void display() {
+        Stage stage = new Stage();
+        stage.setTitle("Stress Test");
+        Spinner<Integer> cabsSpinner = new Spinner<>(1, maxCabs, defaultCabs, 100);
+        Spinner<Integer> rateSpinner = new Spinner<>(1, maxRequestsPerSecond, defaultRequestsPerSecond, 100);
+        Spinner<Double> shareSpinner = new Spinner<>(0.0, 1.0, defaultShareFraction, 0.1);
+        Spinner<Double> timeScaleSpinner = new Spinner<>(1.0, 1000.0, defaultTimeScale, 1.0);
+        CheckBox gridCheckBox = new CheckBox("Generated grid of nodes");
+        Spinner<Integer> gridSpinner = new Spinner<>(4, maxGridNodes, defaultGridNodes, 1000);
+        gridSpinner.disableProperty().bind(gridCheckBox.selectedProperty().not());
+        for (Spinner<?> spinner : new Spinner<?>[]{cabsSpinner, rateSpinner, shareSpinner, timeScaleSpinner,
+                gridSpinner}) {
+            spinner.setEditable(true);
+        }
+
+        GridPane settings = new GridPane();
+        settings.setHgap(10);
+        settings.setVgap(5);
+        settings.addRow(0, new Label("Cabs"), cabsSpinner, new Label("Requests/s"), rateSpinner);
+        settings.addRow(1, new Label("Shared fraction"), shareSpinner, new Label("Time scale"), timeScaleSpinner);
+        settings.addRow(2, gridCheckBox, gridSpinner);
+
+        Button startButton = new Button("Start");
+        Button stopButton = new Button("Stop");
+        stopButton.setDisable(true);
+        startButton.setOnAction(e -> {
+            startButton.setDisable(true);
+            stopButton.setDisable(false);
+            settings.setDisable(true);
+            start(cabsSpinner.getValue(), rateSpinner.getValue(), shareSpinner.getValue(),
+                    timeScaleSpinner.getValue(), gridCheckBox.isSelected() ? gridSpinner.getValue() : 0);
+        });
+        stopButton.setOnAction(e -> {
+            stop();
+            startButton.setDisable(false);
+            stopButton.setDisable(true);
+            settings.setDisable(false);
+        });
+
+        NumberAxis timeAxis = new NumberAxis();
+        timeAxis.setLabel("Seconds");
+        timeAxis.setForceZeroInRange(false);
+        NumberAxis rateAxis = new NumberAxis();
+        rateAxis.setLabel("Requests/s");
+        LineChart<Number, Number> rateChart = new LineChart<>(timeAxis, rateAxis);
+        rateChart.setAnimated(false);
+        rateChart.setCreateSymbols(false);
+        bookingSeries.setName("Booked");
+        offeredSeries.setName("Offered");
+        rateChart.getData().add(offeredSeries);
+        rateChart.getData().add(bookingSeries);
+
+        VBox layout = new VBox(10, settings, new VBox(5, startButton, stopButton), statusLabel, bookingsLabel,
+                matchingLabel, routingLabel, utilizationLabel, rejectionLabel, rateChart);
+        layout.setPadding(new Insets(10));
+        stage.setScene(new Scene(layout, windowWidth, windowHeight));
+        stage.addEventHandler(WindowEvent.WINDOW_HIDDEN, e -> stop());
+        stage.show();
+    }
+
+    /**
+     * Starts a stress run in the background. The map is built, and the engines preprocess it,
+     * on the thread of the run, so a large grid does not freeze the window. The map of the
+     * application is copied first, so the run lays out its own copy and the windows showing
+     * the map keep their node positions.
+     *
+     * @param cabs              number of cabs
+     * @param requestsPerSecond rate of the requests
+     * @param shareFraction     fraction of the requests sharing their ride
+     * @param timeScale         seconds of virtual clock per second of wall clock
+     * @param gridNodes         number of nodes of a generated grid, 0 to use the map of the application
+     */
+    private void start(int cabs, int requestsPerSecond, double shareFraction, double timeScale, int gridNodes) {
+        bookingSeries.getData().clear();
+        offeredSeries.getData().clear();
+        firstSample = null;
+        previousSample = null;
+        stressRun = null;
+        statusLabel.setText("Preparing the map...");
+        MapLayout applicationMap = gridNodes > 0 ? null : mapLayout.copyLanes();
+        stressThread = new Thread(() -> {
+            try {
+                MapLayout stressMap = applicationMap;
+                if (stressMap == null) {
+                    stressMap = new MapLayout();
+                    stressMap.generateGridStructure(gridNodes, mapWidth, mapHeight);
+                } else {
+                    stressMap.layoutNodes(mapWidth, mapHeight);
+                }
+                StressRun run = new StressRun(stressMap, cabs, requestsPerSecond, shareFraction, timeScale);
+                if (!Thread.currentThread().isInterrupted()) {
+                    stressRun = run;
+                    run.run();
+                }
+            } catch (Throwable e) {
+                logger.log(System.Logger.Level.WARNING, "Stress run failed", e);
+                Thread failedThread = Thread.currentThread();
+                Platform.runLater(() -> showFailure(failedThread, e));
+            }
+        }, "stress-run");
+        stressThread.setDaemon(true);
+        stressThread.start();
+        sampleTimeline = new Timeline(new KeyFrame(Duration.seconds(1), e -> showSample()));
+        sampleTimeline.setCycleCount(Animation.INDEFINITE);
+        sampleTimeline.play();
+    }
+
+    /**
+     * Stops the stress run, if any, and the sampling of its progress.
+     */
+    private void stop() {
+        if (sampleTimeline != null) {
+            sampleTimeline.stop();
+            sampleTimeline = null;
+        }
+        StressRun run = stressRun;
+        if (run != null) {
+            run.stop();
+            stressRun = null;
+        }
+        if (stressThread != null) {
+            stressThread.interrupt();
+            stressThread = null;
+            statusLabel.setText("Stopped");
+        }
+    }
+
+    /**
+     * Shows that the stress run failed, e.g. ran out of memory, and stops sampling it. The
+     * last progress shown is kept. A failure of a run that was stopped already is ignored.
+     *
+     * @param failedThread thread of the failed run
+     * @param failure      error that ended the run
+     */
+    private void showFailure(Thread failedThread, Throwable failure) {
+        if (stressThread != failedThread) {
+            return;
+        }
+        stressRun = null;
+        if (sampleTimeline != null) {
+            sampleTimeline.stop();
+            sampleTimeline = null;
+        }
+        statusLabel.setText("Stress run failed: " + failure);
+    }
+
+    /**
+     * Samples the stress run and shows its progress over the last second.
+     */
+    private void showSample() {
+        StressRun run = stressRun;
+        if (run == null) {
+            return;
+        }
+        StressRun.Sample sample = run.sample();
+        if (previousSample == null) {
+            firstSample = sample;
+            previousSample = sample;
+            statusLabel.setText("Running");
+            return;
+        }
+        double seconds = (sample.nanos() - previousSample.nanos()) / 1e9;
+        long booked = sample.bookedCount() - previousSample.bookedCount();
+        long rejected = sample.rejectedCount() - previousSample.rejectedCount();
+        double bookingsPerSecond = booked / seconds;
+        double offeredPerSecond = (sample.offeredCount() - previousSample.offeredCount()) / seconds;
+        long[] matching = LatencyHistogram.difference(sample.matchingLatencies(), previousSample.matchingLatencies());
+        long[] routing = LatencyHistogram.difference(sample.routingLatencies(), previousSample.routingLatencies());
+
+        statusLabel.setText(String.format("Running, %,d requests behind the rate of %,.0f/s", sample.backlog(),
+                run.getRequestsPerSecond()));
+        bookingsLabel.setText(String.format("Bookings: %,.0f/s of %,.0f offered/s, %,d trips completed",
+                bookingsPerSecond, offeredPerSecond, sample.completedCount()));
+        matchingLabel.setText(String.format("Matching latency: p50 %s, p99 %s",
+                formatNanos(LatencyHistogram.percentile(matching, 0.50)),
+                formatNanos(LatencyHistogram.percentile(matching, 0.99))));
+        routingLabel.setText(String.format("Routing latency: p50 %s, p99 %s",
+                formatNanos(LatencyHistogram.percentile(routing, 0.50)),
+                formatNanos(LatencyHistogram.percentile(routing, 0.99))));
+        utilizationLabel.setText(String.format("Utilization: %.1f%% of %,d cabs",
+                100.0 * sample.busyCabCount() / sample.fleetSize(), sample.fleetSize()));
+        rejectionLabel.setText(String.format("Rejection rate: %.1f%%",
+                booked + rejected == 0 ? 0 : 100.0 * rejected / (booked + rejected)));
+
+        double time = (sample.nanos() - firstSample.nanos()) / 1e9;
+        addPoint(bookingSeries, time, bookingsPerSecond);
+        addPoint(offeredSeries, time, offeredPerSecond);
+        previousSample = sample;
+    }
+
+    /**
+     * Adds a point to a series of the chart, dropping the points older than the chart shows.
+     *
+     * @param series series of the chart
+     * @param time   seconds since the start of the run
+     * @param value  value of the point
+     */
+    private static void addPoint(XYChart.Series<Number, Number> series, double time, double value) {
+        series.getData().add(new XYChart.Data<>(time, value));
+        if (series.getData().size() > chartSeconds) {
+            series.getData().remove(0);
+        }
+    }
+
+    /**
+     * Formats a latency with a unit matching its magnitude.
+     *
+     * @param nanos latency in nanoseconds
+     * @return formatted latency
+     */
+    private static String formatNanos(long nanos) {
+        if (nanos >= 1_000_000) {
+            return String.format("%.1f ms", nanos / 1e6);
+        }
+        return String.format("%.1f us", nanos / 1e3);
+    }
+}